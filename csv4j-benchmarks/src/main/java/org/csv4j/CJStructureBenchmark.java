@@ -0,0 +1,54 @@
+package org.csv4j;
+
+import org.csv4j.benchmarks.Models;
+import org.csv4j.benchmarks.NarrowModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of building a `CJStructure` for a static `CJMap`,
+ * keys set on the annotation, against a dynamic one that
+ * scans every bean for its keys. The static model declares
+ * `mapWidth` keys, so both csv have the same columns
+ *
+ * It is in the csv4j package to build the structure directly
+ *
+ * @author Omar Muhtaseb
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CJStructureBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    @Param({"8", "64"})
+    private int mapWidth;
+
+    private Class<?> staticMapModelClass;
+    private List<Object> staticMapBeans;
+    private List<NarrowModel> dynamicMapBeans;
+
+    @Setup
+    public void setup() {
+        staticMapModelClass = Models.staticMapModelClass(mapWidth);
+        staticMapBeans = Models.staticMapBeans(rows, mapWidth);
+        dynamicMapBeans = Models.dynamicMapBeans(rows, mapWidth);
+    }
+
+    @Benchmark
+    public CJStructure<Object> staticMap() {
+        return new CJStructure<>(staticMapBeans, staticMapModelClass);
+    }
+
+    @Benchmark
+    public CJStructure<NarrowModel> dynamicMap() {
+        return new CJStructure<>(dynamicMapBeans, NarrowModel.class);
+    }
+}
@@ -0,0 +1,57 @@
+package org.csv4j;
+
+import org.csv4j.benchmarks.Models;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of rendering single rows with `CJWriteIterator.next`
+ *
+ * One operation is one row. The structure is built once, the
+ * iterator is renewed over the same beans once they are consumed.
+ * It is in the csv4j package to build the structure directly
+ *
+ * @author Omar Muhtaseb
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CJWriteIteratorBenchmark {
+
+    @Param({"1000"})
+    private int rows;
+
+    @Param({"NARROW", "WIDE"})
+    private Models.Columns columns;
+
+    @Param({"0", "8", "64"})
+    private int mapWidth;
+
+    private List<Object> beans;
+    private CJStructure<Object> cjStructure;
+    private CJWriteIterator<Object> cjWriteIterator;
+
+    @Setup
+    public void setup() {
+        beans = Models.beans(columns, rows, mapWidth);
+        cjStructure = new CJStructure<>(beans, Models.modelClass(columns));
+        cjWriteIterator = cjWriteIterator();
+    }
+
+    @Benchmark
+    public String next() {
+        if (!cjWriteIterator.hasNext()) {
+            cjWriteIterator = cjWriteIterator();
+        }
+        return cjWriteIterator.next();
+    }
+
+    private CJWriteIterator<Object> cjWriteIterator() {
+        return new CJWriteIterator<>(cjStructure, beans, ",", "\n", "null", ";");
+    }
+}
@@ -0,0 +1,66 @@
+package org.csv4j;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of rendering the multi values cells
+ * of collections, arrays and maps with `ToString`
+ *
+ * It is in the csv4j package since `ToString` is package private
+ *
+ * @author Omar Muhtaseb
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ToStringBenchmark {
+
+    @Param({"4", "64"})
+    private int size;
+
+    private Collection<Object> collection;
+    private Object[] array;
+    private Map<Object, Object> map;
+    private CJCharBuffer buffer;
+
+    @Setup
+    public void setup() {
+        collection = new ArrayList<>(size);
+        array = new Object[size];
+        map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Object value = i % 2 == 0 ? "value" + i : (Object) i;
+            collection.add(value);
+            array[i] = value;
+            map.put("key" + i, value);
+        }
+        buffer = new CJCharBuffer(1024);
+    }
+
+    @Benchmark
+    public int collection() {
+        buffer.clear();
+        ToString.collectionToString(collection, ";", "null", buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int array() {
+        buffer.clear();
+        ToString.arrayToString(array, ";", "null", buffer);
+        return buffer.length();
+    }
+
+    @Benchmark
+    public int map() {
+        buffer.clear();
+        ToString.MapToString(map, ";", "null", buffer);
+        return buffer.length();
+    }
+}
@@ -0,0 +1,70 @@
+package org.csv4j.benchmarks;
+
+import org.csv4j.CJWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of whole exports through `CJWriter`
+ *
+ * One operation is one export of `rows` beans, the
+ * structure scan of the dynamic map included
+ *
+ * @author Omar Muhtaseb
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CJWriterBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    @Param({"NARROW", "WIDE"})
+    private Models.Columns columns;
+
+    @Param({"0", "8", "64"})
+    private int mapWidth;
+
+    private List<Object> beans;
+    private CJWriter<Object> cjWriter;
+    private Writer nullWriter;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        beans = Models.beans(columns, rows, mapWidth);
+        cjWriter = new CJWriter<>(Models.modelClass(columns));
+        nullWriter = new NullWriter();
+        file = Files.createTempFile("csv4j-benchmark", ".csv");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String csv() {
+        return cjWriter.csv(beans);
+    }
+
+    @Benchmark
+    public void writeCSVNullWriter() throws IOException {
+        cjWriter.writeCSV(nullWriter, beans);
+    }
+
+    @Benchmark
+    public void writeCSVFile() throws IOException {
+        cjWriter.writeCSV(file, beans);
+    }
+}
@@ -0,0 +1,136 @@
+package org.csv4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the data of the benchmarks
+ *
+ * The data is deterministic so the numbers of
+ * different runs and releases are comparable
+ *
+ * @author Omar Muhtaseb
+ */
+public final class Models {
+
+    /**
+     * The model of the scenario, it sets the number of columns
+     */
+    public enum Columns {
+        /**
+         * 4 columns and the map keys
+         */
+        NARROW,
+        /**
+         * 16 columns and the map keys
+         */
+        WIDE
+    }
+
+    private Models() {
+    }
+
+    /**
+     * Get the model class of the scenario
+     *
+     * @param columns: The scenario columns
+     */
+    public static Class<?> modelClass(Columns columns) {
+        return columns == Columns.NARROW ? NarrowModel.class : WideModel.class;
+    }
+
+    /**
+     * Generate the beans of the scenario
+     *
+     * @param columns:  The scenario columns
+     * @param rows:     The number of beans
+     * @param mapWidth: The number of keys in the dynamic map of each bean
+     */
+    public static List<Object> beans(Columns columns, int rows, int mapWidth) {
+        List<Object> beans = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            if (columns == Columns.NARROW) {
+                beans.add(new NarrowModel(i, name(i), price(i), tags(i), attributes(i, mapWidth)));
+            } else {
+                beans.add(new WideModel(i, name(i), price(i), tags(i), attributes(i, mapWidth)));
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Get the static map model declaring `mapWidth` keys on `CJMap`
+     *
+     * @param mapWidth: The number of the map keys, 8 or 64
+     */
+    public static Class<?> staticMapModelClass(int mapWidth) {
+        switch (mapWidth) {
+            case 8:
+                return StaticMapModel.class;
+            case 64:
+                return StaticMapModel64.class;
+            default:
+                throw new IllegalArgumentException("No static map model of " + mapWidth + " keys");
+        }
+    }
+
+    /**
+     * Generate the beans of the static map model of `staticMapModelClass(mapWidth)`
+     *
+     * @param rows:     The number of beans
+     * @param mapWidth: The number of keys in the map of each bean, 8 or 64
+     */
+    public static List<Object> staticMapBeans(int rows, int mapWidth) {
+        Class<?> modelClass = staticMapModelClass(mapWidth);
+        List<Object> beans = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            if (modelClass == StaticMapModel.class) {
+                beans.add(new StaticMapModel(i, name(i), price(i), tags(i), attributes(i, mapWidth)));
+            } else {
+                beans.add(new StaticMapModel64(i, name(i), price(i), tags(i), attributes(i, mapWidth)));
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Generate the beans of the dynamic map model
+     *
+     * @param rows:     The number of beans
+     * @param mapWidth: The number of keys in the map of each bean
+     */
+    public static List<NarrowModel> dynamicMapBeans(int rows, int mapWidth) {
+        List<NarrowModel> beans = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            beans.add(new NarrowModel(i, name(i), price(i), tags(i), attributes(i, mapWidth)));
+        }
+        return beans;
+    }
+
+    private static String name(int i) {
+        return "Item " + i;
+    }
+
+    private static Double price(int i) {
+        return i * 1.25;
+    }
+
+    private static List<String> tags(int i) {
+        return Arrays.asList("tag" + i % 3, "tag" + i % 5);
+    }
+
+    /**
+     * All the beans share the same keys, the csv has `mapWidth`
+     * map columns and the structure scan sees every key once per bean
+     */
+    private static Map<String, String> attributes(int i, int mapWidth) {
+        Map<String, String> attributes = new HashMap<>();
+        for (int k = 0; k < mapWidth; k++) {
+            attributes.put("key" + k, "value" + (i + k) % 16);
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,36 @@
+package org.csv4j.benchmarks;
+
+import org.csv4j.annotation.CJMap;
+import org.csv4j.annotation.CJName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model of few columns and a dynamic map
+ *
+ * @author Omar Muhtaseb
+ */
+public class NarrowModel {
+
+    @CJName("ID")
+    private Integer id;
+
+    @CJName("Name")
+    private String name;
+
+    private Double price;
+
+    private List<String> tags;
+
+    @CJMap
+    private Map<String, String> attributes;
+
+    public NarrowModel(Integer id, String name, Double price, List<String> tags, Map<String, String> attributes) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.tags = tags;
+        this.attributes = attributes;
+    }
+}
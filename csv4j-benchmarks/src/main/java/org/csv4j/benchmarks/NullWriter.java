@@ -0,0 +1,27 @@
+package org.csv4j.benchmarks;
+
+import java.io.Writer;
+
+/**
+ * A writer discarding the chars, `Writer.nullWriter()` for Java 8
+ *
+ * @author Omar Muhtaseb
+ */
+final class NullWriter extends Writer {
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
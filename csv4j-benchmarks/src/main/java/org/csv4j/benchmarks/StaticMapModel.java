@@ -0,0 +1,37 @@
+package org.csv4j.benchmarks;
+
+import org.csv4j.annotation.CJMap;
+import org.csv4j.annotation.CJName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The narrow model with 8 map keys set on `CJMap`,
+ * so its structure is built without scanning the beans
+ *
+ * @author Omar Muhtaseb
+ */
+public class StaticMapModel {
+
+    @CJName("ID")
+    private Integer id;
+
+    @CJName("Name")
+    private String name;
+
+    private Double price;
+
+    private List<String> tags;
+
+    @CJMap(keys = {"key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7"})
+    private Map<String, String> attributes;
+
+    public StaticMapModel(Integer id, String name, Double price, List<String> tags, Map<String, String> attributes) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.tags = tags;
+        this.attributes = attributes;
+    }
+}
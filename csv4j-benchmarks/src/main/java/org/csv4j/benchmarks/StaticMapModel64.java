@@ -0,0 +1,45 @@
+package org.csv4j.benchmarks;
+
+import org.csv4j.annotation.CJMap;
+import org.csv4j.annotation.CJName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The static map model with 64 keys set on `CJMap`,
+ * the static counterpart of the dynamic map of 64 keys
+ *
+ * @author Omar Muhtaseb
+ */
+public class StaticMapModel64 {
+
+    @CJName("ID")
+    private Integer id;
+
+    @CJName("Name")
+    private String name;
+
+    private Double price;
+
+    private List<String> tags;
+
+    @CJMap(keys = {
+            "key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7", "key8", "key9", "key10", "key11",
+            "key12", "key13", "key14", "key15", "key16", "key17", "key18", "key19", "key20", "key21", "key22",
+            "key23", "key24", "key25", "key26", "key27", "key28", "key29", "key30", "key31", "key32", "key33",
+            "key34", "key35", "key36", "key37", "key38", "key39", "key40", "key41", "key42", "key43", "key44",
+            "key45", "key46", "key47", "key48", "key49", "key50", "key51", "key52", "key53", "key54", "key55",
+            "key56", "key57", "key58", "key59", "key60", "key61", "key62", "key63"
+    })
+    private Map<String, String> attributes;
+
+    public StaticMapModel64(Integer id, String name, Double price, List<String> tags,
+                            Map<String, String> attributes) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.tags = tags;
+        this.attributes = attributes;
+    }
+}
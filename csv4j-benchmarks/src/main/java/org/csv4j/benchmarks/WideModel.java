@@ -0,0 +1,61 @@
+package org.csv4j.benchmarks;
+
+import org.csv4j.annotation.CJMap;
+import org.csv4j.annotation.CJName;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A model of many columns and a dynamic map
+ *
+ * @author Omar Muhtaseb
+ */
+public class WideModel {
+
+    @CJName("ID")
+    private Integer id;
+
+    @CJName("Name")
+    private String name;
+
+    private Double price;
+
+    private List<String> tags;
+
+    private Long created;
+    private Long updated;
+    private Integer quantity;
+    private Integer version;
+    private Boolean active;
+    private Boolean deleted;
+    private String country;
+    private String currency;
+    private String category;
+    private String description;
+    private Short rank;
+    private Character grade;
+
+    @CJMap
+    private Map<String, String> attributes;
+
+    public WideModel(Integer id, String name, Double price, List<String> tags, Map<String, String> attributes) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.tags = tags;
+        this.created = 1500000000000L + id;
+        this.updated = 1600000000000L + id;
+        this.quantity = id % 100;
+        this.version = id % 7;
+        this.active = id % 2 == 0;
+        this.deleted = id % 5 == 0 ? null : false;
+        this.country = "JO";
+        this.currency = "USD";
+        this.category = "category-" + id % 10;
+        this.description = "A description of the item " + id;
+        this.rank = (short) (id % 1000);
+        this.grade = (char) ('A' + id % 5);
+        this.attributes = attributes;
+    }
+}
@@ -0,0 +1,72 @@
+package org.csv4j.flow;
+
+import org.csv4j.CJExportResult;
+import org.csv4j.CJSubscriber;
+import org.csv4j.CJWriter;
+
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * A `Flow.Subscriber` writing the beans of a `Flow.Publisher` as csv
+ *
+ * It adapts the `CJSubscriber` of a `CJWriter`: the beans are requested
+ * in batches, the next batch once the previous one is rendered, so the
+ * memory stays bounded whatever the speed of the publisher
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJFlowSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final CJSubscriber<T> subscriber;
+
+    /**
+     * Args Constructor
+     *
+     * @param subscriber: The subscriber of the writer
+     */
+    public CJFlowSubscriber(CJSubscriber<T> subscriber) {
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Get a subscriber writing the beans to the writer
+     *
+     * @param cjWriter:  The csv writer
+     * @param writer:    The writer, closed once the export is done
+     * @param batchSize: The number of the beans requested at once
+     * @return subscriber: The flow subscriber
+     */
+    public static <T> CJFlowSubscriber<T> of(CJWriter<T> cjWriter, Writer writer, int batchSize) {
+        return new CJFlowSubscriber<>(cjWriter.subscriber(writer, batchSize));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscriber.onSubscribe(subscription::request, subscription::cancel);
+    }
+
+    @Override
+    public void onNext(T item) {
+        subscriber.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        subscriber.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        subscriber.onComplete();
+    }
+
+    /**
+     * Get the result of the export, completed once the writer is closed.
+     * Cancelling it stops the export and cancels the subscription
+     */
+    public CompletableFuture<CJExportResult> result() {
+        return subscriber.result();
+    }
+}
@@ -0,0 +1,499 @@
+package org.csv4j.processor;
+
+import org.csv4j.CJFormatter;
+import org.csv4j.CJSerializer;
+import org.csv4j.annotation.CJCache;
+import org.csv4j.annotation.CJFormat;
+import org.csv4j.annotation.CJIgnore;
+import org.csv4j.annotation.CJMap;
+import org.csv4j.annotation.CJName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An annotation processor that generates a `CJSerializer` for each
+ * model with fields annotated by `CJName`, `CJIgnore`, `CJMap`,
+ * `CJFormat` or `CJCache`.
+ *
+ * The generated serializer lists the columns in the same order as
+ * `CJStructure` reflects them, superclass fields first, and reads the
+ * fields directly, the same as the reflection. The declared types, the
+ * formatters, the caches and the bounds of the maps are generated too, so
+ * the model is never reflected. A model with a field, a field type or a
+ * formatter that can't be used from its package is skipped with a note, and
+ * is written through reflection as before. The generated serializers are
+ * registered in `META-INF/services/org.csv4j.CJSerializer`, so they are
+ * loaded with the `ServiceLoader` without any reflective lookup
+ *
+ * @author Omar Muhtaseb
+ */
+@SupportedAnnotationTypes({
+        "org.csv4j.annotation.CJName",
+        "org.csv4j.annotation.CJIgnore",
+        "org.csv4j.annotation.CJMap",
+        "org.csv4j.annotation.CJFormat",
+        "org.csv4j.annotation.CJCache"
+})
+public class CJSerializerProcessor extends AbstractProcessor {
+
+    private static final String SERVICES = "META-INF/services/" + CJSerializer.class.getName();
+
+    private final Set<String> generated = new HashSet<>();
+    private final Set<String> serializers = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServices();
+            return false;
+        }
+
+        Set<TypeElement> models = new LinkedHashSet<>();
+        annotations.forEach(annotation ->
+                ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(annotation))
+                        .forEach(field -> models.add((TypeElement) field.getEnclosingElement())));
+
+        for (TypeElement model : models) {
+            if (generated.add(model.getQualifiedName().toString())) {
+                generate(model);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generate the serializer of the model
+     *
+     * @param model: The model class
+     */
+    private void generate(TypeElement model) {
+        String skipReason = unsupportedReason(model);
+        if (skipReason != null) {
+            note(model, skipReason);
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(model).getQualifiedName().toString();
+        List<Column> columns = new ArrayList<>();
+        for (VariableElement field : modelFields(model)) {
+            if (field.getAnnotation(CJIgnore.class) != null) {
+                continue;
+            }
+            String accessor = accessor(model, field, packageName);
+            if (accessor == null) {
+                note(model, "field `" + field.getSimpleName() + "` is not readable from package " + packageName);
+                return;
+            }
+            if (!readable(processingEnv.getTypeUtils().erasure(field.asType()), packageName)) {
+                note(model, "the type of field `" + field.getSimpleName() + "` is not readable from package "
+                        + packageName);
+                return;
+            }
+            TypeMirror formatter = formatter(field);
+            if (formatter != null && !instantiable(formatter)) {
+                note(model, "the formatter of field `" + field.getSimpleName() + "` has no public default constructor");
+                return;
+            }
+            columns.add(new Column(field, accessor, formatter));
+        }
+
+        String serializerName = serializerName(model);
+        String qualifiedName = packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+        try (PrintWriter out = new PrintWriter(
+                processingEnv.getFiler().createSourceFile(qualifiedName, model).openWriter())) {
+            write(out, packageName, serializerName, modelType(model), erasure(model), columns);
+            serializers.add(qualifiedName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "csv4j: could not generate " + qualifiedName + ": " + e.getMessage(), model);
+        }
+    }
+
+    /**
+     * Register the generated serializers for the `ServiceLoader`, along with
+     * the ones registered by a previous incremental compilation
+     */
+    private void writeServices() {
+        if (serializers.isEmpty()) {
+            return;
+        }
+        Set<String> services = new TreeSet<>(serializers);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                reader.lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .forEach(services::add);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous registrations
+        }
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES).openWriter())) {
+            services.forEach(out::println);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "csv4j: could not register the serializers in " + SERVICES + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the source of the serializer
+     */
+    private void write(PrintWriter out, String packageName, String serializerName, String modelType,
+                       String modelClass, List<Column> columns) {
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * Generated by " + getClass().getName() + ", do not edit");
+        out.println(" */");
+        out.println("public final class " + serializerName + " implements "
+                + CJSerializer.class.getName() + "<" + modelType + "> {");
+        out.println();
+        out.println("    private static final String[] FIELD_NAMES = {" + join(columns, c -> literal(c.fieldName)) + "};");
+        out.println("    private static final String[] COLUMN_NAMES = {" + join(columns, c -> literal(c.columnName)) + "};");
+        out.println("    private static final boolean[] CJ_MAPS = {" + join(columns, c -> String.valueOf(c.isCJMap)) + "};");
+        out.println("    private static final String[][] MAP_KEYS = {" + join(columns, c -> "{" + Arrays.stream(c.mapKeys)
+                .map(this::literal).collect(Collectors.joining(", ")) + "}") + "};");
+        out.println("    private static final boolean[] INCLUDE_NULL = {" + join(columns, c -> String.valueOf(c.includeNull)) + "};");
+        out.println("    private static final Class<?>[] TYPES = {" + join(columns, c -> c.type + ".class") + "};");
+        out.println("    private static final int[] CACHE_SIZES = {" + join(columns, c -> String.valueOf(c.cacheSize)) + "};");
+        out.println("    private static final int[] SCAN_LIMITS = {" + join(columns, c -> String.valueOf(c.scanLimit)) + "};");
+        out.println("    private static final double[] SAMPLE_RATES = {" + join(columns, c -> literal(c.sampleRate)) + "};");
+        out.println("    private static final int[] MAX_KEYS = {" + join(columns, c -> String.valueOf(c.maxKeys)) + "};");
+        out.println("    private static final String[] OVERFLOWS = {" + join(columns, c -> literal(c.overflow)) + "};");
+        out.println();
+        out.println("    public Class<?> modelClass() {");
+        out.println("        return " + modelClass + ".class;");
+        out.println("    }");
+        out.println();
+        out.println("    public int columns() {");
+        out.println("        return " + columns.size() + ";");
+        out.println("    }");
+        out.println();
+        out.println("    public String fieldName(int column) {");
+        out.println("        return FIELD_NAMES[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public String columnName(int column) {");
+        out.println("        return COLUMN_NAMES[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public boolean isCJMap(int column) {");
+        out.println("        return CJ_MAPS[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public String[] mapKeys(int column) {");
+        out.println("        return MAP_KEYS[column].clone();");
+        out.println("    }");
+        out.println();
+        out.println("    public boolean includeNull(int column) {");
+        out.println("        return INCLUDE_NULL[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public Class<?> type(int column) {");
+        out.println("        return TYPES[column];");
+        out.println("    }");
+        out.println();
+        out.println("    @SuppressWarnings(\"rawtypes\")");
+        out.println("    public " + CJFormatter.class.getName() + "<?> formatter(int column) {");
+        out.println("        switch (column) {");
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).formatter != null) {
+                out.println("            case " + i + ":");
+                out.println("                return new " + columns.get(i).formatter + "();");
+            }
+        }
+        out.println("            default:");
+        out.println("                return null;");
+        out.println("        }");
+        out.println("    }");
+        out.println();
+        out.println("    public int cacheSize(int column) {");
+        out.println("        return CACHE_SIZES[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public int scanLimit(int column) {");
+        out.println("        return SCAN_LIMITS[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public double sampleRate(int column) {");
+        out.println("        return SAMPLE_RATES[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public int maxKeys(int column) {");
+        out.println("        return MAX_KEYS[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public String overflow(int column) {");
+        out.println("        return OVERFLOWS[column];");
+        out.println("    }");
+        out.println();
+        out.println("    public Object value(" + modelType + " bean, int column) {");
+        out.println("        switch (column) {");
+        for (int i = 0; i < columns.size(); i++) {
+            out.println("            case " + i + ":");
+            out.println("                return " + columns.get(i).accessor + ";");
+        }
+        out.println("            default:");
+        out.println("                throw new IndexOutOfBoundsException(String.valueOf(column));");
+        out.println("        }");
+        out.println("    }");
+        out.println("}");
+    }
+
+    /**
+     * Check if a serializer can be generated for the model
+     *
+     * @return reason: Why the model is skipped, null when supported
+     */
+    private String unsupportedReason(TypeElement model) {
+        for (Element element = model; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            TypeElement type = (TypeElement) element;
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                return "private classes are written through reflection";
+            }
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                return "local classes are written through reflection";
+            }
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)
+                    && type.getKind() == ElementKind.CLASS) {
+                return "inner classes are written through reflection";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the fields of the model and its superclasses,
+     * superclass fields first, the same as `utils.appendClassFields`
+     */
+    private List<VariableElement> modelFields(TypeElement model) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeMirror superclass = model.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            fields.addAll(modelFields((TypeElement) ((DeclaredType) superclass).asElement()));
+        }
+        fields.addAll(ElementFilter.fieldsIn(model.getEnclosedElements()));
+        return fields;
+    }
+
+    /**
+     * Get the expression that reads the field from `bean`. The field is read
+     * directly, never through a getter, the same as the reflection reads it
+     *
+     * @return expression: The accessor expression, null when the field is not readable
+     */
+    private String accessor(TypeElement model, VariableElement field, String packageName) {
+        TypeElement declaring = (TypeElement) field.getEnclosingElement();
+        if (!readable(field, packageName) || !readable(declaring, packageName)) {
+            return null;
+        }
+        String declaringType = erasure(declaring);
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            return declaringType + "." + field.getSimpleName();
+        }
+        return declaring.equals(model)
+                ? "bean." + field.getSimpleName()
+                : "((" + declaringType + ") bean)." + field.getSimpleName();
+    }
+
+    private String erasure(TypeElement type) {
+        return processingEnv.getTypeUtils().erasure(type.asType()).toString();
+    }
+
+    /**
+     * Get the `CJFormat` formatter class of the field
+     *
+     * @return formatter: The formatter type, null when the field has no `CJFormat`
+     */
+    private TypeMirror formatter(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(CJFormat.class.getName())) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                        : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return processingEnv.getTypeUtils().erasure((TypeMirror) entry.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if the formatter has a public default constructor usable from any
+     * package, the same as `utils.fieldFormatter` instantiates it
+     */
+    private boolean instantiable(TypeMirror formatter) {
+        if (formatter.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        TypeElement type = (TypeElement) ((DeclaredType) formatter).asElement();
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || type.getKind() != ElementKind.CLASS) {
+            return false;
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement) element).getNestingKind();
+            if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    || nesting == NestingKind.LOCAL || nesting == NestingKind.ANONYMOUS
+                    || (nesting == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC))) {
+                return false;
+            }
+        }
+        return ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                        && constructor.getModifiers().contains(Modifier.PUBLIC));
+    }
+
+    /**
+     * Check if the type can be named from a class in the package
+     */
+    private boolean readable(TypeMirror type, String packageName) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return readable(((ArrayType) type).getComponentType(), packageName);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return true;
+        }
+        for (Element element = ((DeclaredType) type).asElement(); element instanceof TypeElement;
+             element = element.getEnclosingElement()) {
+            if (!readable(element, packageName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of the constants of an enum type, -1 for other types
+     */
+    private int enumConstants(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED
+                || ((DeclaredType) type).asElement().getKind() != ElementKind.ENUM) {
+            return -1;
+        }
+        return (int) ((DeclaredType) type).asElement().getEnclosedElements().stream()
+                .filter(element -> element.getKind() == ElementKind.ENUM_CONSTANT)
+                .count();
+    }
+
+    /**
+     * Check if the element can be used from a class in the package
+     */
+    private boolean readable(Element element, String packageName) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || processingEnv.getElementUtils()
+                .getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    /**
+     * The generated class name, `Outer_Inner_CJSerializer`
+     */
+    private String serializerName(TypeElement model) {
+        Deque<String> names = new ArrayDeque<>();
+        for (Element element = model; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            names.addFirst(element.getSimpleName().toString());
+        }
+        return String.join("_", names) + CJSerializer.SUFFIX;
+    }
+
+    /**
+     * The model type used in the generated code, wildcards for generic models
+     */
+    private String modelType(TypeElement model) {
+        String name = model.getQualifiedName().toString();
+        if (model.getTypeParameters().isEmpty()) {
+            return name;
+        }
+        return name + "<" + model.getTypeParameters().stream().map(p -> "?").collect(Collectors.joining(", ")) + ">";
+    }
+
+    private String literal(Object value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private static String join(List<Column> columns, java.util.function.Function<Column, String> mapper) {
+        return columns.stream().map(mapper).collect(Collectors.joining(", "));
+    }
+
+    private void note(TypeElement model, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "csv4j: no serializer generated for " + model.getQualifiedName() + ", " + reason, model);
+    }
+
+    /**
+     * A column of the generated serializer
+     */
+    private class Column {
+        private final String fieldName;
+        private final String columnName;
+        private final boolean isCJMap;
+        private final String[] mapKeys;
+        private final boolean includeNull;
+        private final String type;
+        private final String formatter;
+        private final int cacheSize;
+        private final int scanLimit;
+        private final double sampleRate;
+        private final int maxKeys;
+        private final String overflow;
+        private final String accessor;
+
+        Column(VariableElement field, String accessor, TypeMirror formatter) {
+            CJName cjName = field.getAnnotation(CJName.class);
+            CJMap cjMap = field.getAnnotation(CJMap.class);
+            CJCache cjCache = field.getAnnotation(CJCache.class);
+            this.fieldName = field.getSimpleName().toString();
+            this.columnName = cjName != null ? cjName.value() : fieldName;
+            this.isCJMap = cjMap != null && isMap(field.asType());
+            this.mapKeys = isCJMap ? cjMap.keys() : new String[0];
+            this.includeNull = !isCJMap || cjMap.includeNull();
+            this.type = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+            this.formatter = formatter == null ? null : formatter.toString();
+            this.cacheSize = cjCache != null
+                    ? Math.max(cjCache.value(), 0)
+                    : Math.max(enumConstants(field.asType()), 0);
+            this.scanLimit = isCJMap ? cjMap.scanLimit() : 0;
+            this.sampleRate = isCJMap ? cjMap.sampleRate() : 1;
+            this.maxKeys = isCJMap ? cjMap.maxKeys() : 0;
+            this.overflow = isCJMap ? cjMap.overflow() : "";
+            this.accessor = accessor;
+        }
+
+        private boolean isMap(TypeMirror type) {
+            TypeMirror map = processingEnv.getTypeUtils().erasure(
+                    processingEnv.getElementUtils().getTypeElement("java.util.Map").asType());
+            return processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type), map);
+        }
+    }
+}
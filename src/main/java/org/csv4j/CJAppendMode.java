@@ -0,0 +1,25 @@
+package org.csv4j;
+
+/**
+ * The ways `CJWriter.appendCSV` reconciles the columns of the appended
+ * rows missing from the header of the existing file, like the new keys
+ * of the dynamic maps. The columns of the header missing from the rows
+ * are always padded with the null value
+ *
+ * @author Omar Muhtaseb
+ */
+public enum CJAppendMode {
+
+    /**
+     * Add the new columns at the end of the header. The file is copied once
+     * with the new header and its rows padded with the null value
+     */
+    WIDEN,
+
+    /**
+     * Write the new columns of each row to the overflow column, as name=value
+     * pairs separated by the multi values separator. The file is only copied
+     * to add the overflow column the first time
+     */
+    OVERFLOW
+}
@@ -0,0 +1,468 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * CJAppender appends the rows of a CJWriteIterator to an existing csv file.
+ *
+ * The header of the file is read and the cells of the rows are projected to
+ * its columns, the columns missing from the rows are padded with the null
+ * value. When the header is kept the rows are only appended at the end of
+ * the file. The new columns widen the header or go to the overflow column,
+ * the file is then copied once to a temporary file with the new header and
+ * its rows padded as they are streamed, and moved over the original file
+ *
+ * @author Omar Muhtaseb
+ */
+class CJAppender<T> {
+
+    private final CJWriter<T> cjWriter;
+    private final CJWriteIterator<T> cjWriteIterator;
+    private final CJAppendMode appendMode;
+    private final String overflowColumn;
+    private final CJQuoter quoter;
+    private final String delimiter;
+    private final String lineSeparator;
+    private final String nullValue;
+    private final char quoteChar;
+    private final char escapeChar;
+    private final int bufferSize;
+
+    /**
+     * Args Constructor
+     *
+     * @param cjWriter:        The writer opening the files
+     * @param cjWriteIterator: The iterator of the rows
+     * @param appendMode:      How the new columns are reconciled with the header
+     * @param overflowColumn:  The name of the overflow column
+     * @param quoter:          The quoter of the header names
+     * @param delimiter:       The delimiter between cols
+     * @param lineSeparator:   The line separator between rows
+     * @param nullValue:       The value of the padded cells
+     * @param quoteChar:       The char wrapping the quoted cells
+     * @param escapeChar:      The char escaping the quotes in the quoted cells
+     * @param bufferSize:      The number of chars buffered before they are written
+     */
+    CJAppender(CJWriter<T> cjWriter, CJWriteIterator<T> cjWriteIterator, CJAppendMode appendMode,
+               String overflowColumn, CJQuoter quoter, String delimiter, String lineSeparator, String nullValue,
+               char quoteChar, char escapeChar, int bufferSize) {
+        this.cjWriter = cjWriter;
+        this.cjWriteIterator = cjWriteIterator;
+        this.appendMode = appendMode;
+        this.overflowColumn = overflowColumn;
+        this.quoter = quoter;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+        this.nullValue = nullValue;
+        this.quoteChar = quoteChar;
+        this.escapeChar = escapeChar;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Append the remaining rows to the file
+     *
+     * @param path:          The existing non empty file
+     * @param includeHeader: Whether the file starts with a header to align the rows to
+     */
+    void append(Path path, Boolean includeHeader) throws IOException {
+        try {
+            if (!includeHeader) {
+                appendTail(path);
+                return;
+            }
+            List<String> header;
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                header = cells(readHeader(reader, new Scanner()));
+            }
+            List<String> added = reconcile(header);
+            if (added.isEmpty()) {
+                appendTail(path);
+            } else {
+                rewrite(path, header, added);
+            }
+        } finally {
+            cjWriteIterator.close();
+        }
+    }
+
+    /**
+     * Project the cells of the rows to the header, then to the new columns
+     *
+     * @param header: The names of the header of the file
+     * @return added: The names of the columns added to the header
+     */
+    private List<String> reconcile(List<String> header) {
+        List<String> names = cjWriteIterator.cellNames();
+        Map<String, Deque<Integer>> sources = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            sources.computeIfAbsent(names.get(i), name -> new ArrayDeque<>()).add(i);
+        }
+
+        int[] projection = new int[header.size() + names.size() + 1];
+        boolean[] projected = new boolean[names.size()];
+        boolean overflowed = false;
+        for (int i = 0; i < header.size(); i++) {
+            Deque<Integer> cells = sources.get(header.get(i));
+            if (cells != null && !cells.isEmpty()) {
+                projection[i] = cells.poll();
+                projected[projection[i]] = true;
+            } else if (appendMode == CJAppendMode.OVERFLOW && !overflowed && header.get(i).equals(overflowColumn)) {
+                projection[i] = CJWriteIterator.OVERFLOW;
+                overflowed = true;
+            } else {
+                projection[i] = CJWriteIterator.PADDED;
+            }
+        }
+
+        List<String> added = new ArrayList<>();
+        int[] overflowSources = new int[names.size()];
+        int overflowLength = 0;
+        int length = header.size();
+        for (int i = 0; i < names.size(); i++) {
+            if (projected[i]) {
+                continue;
+            }
+            if (appendMode == CJAppendMode.OVERFLOW) {
+                overflowSources[overflowLength++] = i;
+            } else {
+                added.add(names.get(i));
+                projection[length++] = i;
+            }
+        }
+        if (overflowLength > 0 && !overflowed) {
+            added.add(overflowColumn);
+            projection[length++] = CJWriteIterator.OVERFLOW;
+        }
+
+        if (!isIdentity(projection, length, names.size())) {
+            cjWriteIterator.project(Arrays.copyOf(projection, length), Arrays.copyOf(overflowSources, overflowLength));
+        }
+        return added;
+    }
+
+    private static boolean isIdentity(int[] projection, int length, int cells) {
+        if (length != cells) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (projection[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append the rows at the end of the file, the file is not read
+     */
+    private void appendTail(Path path) throws IOException {
+        boolean separated = endsWith(path, lineSeparator);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             CJByteWriter writer = cjWriter.byteWriter(channel)) {
+            appendRows(writer, separated);
+        }
+    }
+
+    /**
+     * Copy the file to a temporary file with the widened header, padding
+     * its rows, append the rows and move it over the file
+     */
+    private void rewrite(Path path, List<String> header, List<String> added) throws IOException {
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            copyAccess(path, temp);
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING);
+                 CJByteWriter writer = cjWriter.byteWriter(channel)) {
+                Scanner scanner = new Scanner();
+                readHeader(reader, scanner);
+                writer.write(Stream.concat(header.stream(), added.stream())
+                        .map(quoter::cell)
+                        .collect(Collectors.joining(delimiter, "", lineSeparator)));
+                StringBuilder padding = new StringBuilder();
+                for (int i = 0; i < added.size(); i++) {
+                    padding.append(delimiter).append(nullValue);
+                }
+                boolean separated = copyRows(reader, writer, scanner, padding.toString());
+                appendRows(writer, separated);
+            }
+            move(temp, path);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Give the temporary file the permissions of the file, and its owner and group
+     * where allowed, as the temporary file is created readable only by its owner
+     *
+     * @param path: The file
+     * @param temp: The temporary file moved over the file
+     */
+    private static void copyAccess(Path path, Path temp) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+        if (posix != null) {
+            PosixFileAttributes attributes = Files.readAttributes(path, PosixFileAttributes.class);
+            posix.setPermissions(attributes.permissions());
+            try {
+                posix.setGroup(attributes.group());
+                posix.setOwner(attributes.owner());
+            } catch (IOException e) {
+                // Changing the owner or the group needs privileges, the file is then owned by the writer
+            }
+            return;
+        }
+        AclFileAttributeView acl = Files.getFileAttributeView(temp, AclFileAttributeView.class);
+        if (acl != null) {
+            acl.setAcl(Files.getFileAttributeView(path, AclFileAttributeView.class).getAcl());
+        }
+    }
+
+    /**
+     * Append the remaining rows, separated from the rows of the file
+     *
+     * @param writer:    The writer of the file
+     * @param separated: Whether the file already ends with a line separator
+     */
+    private void appendRows(Writer writer, boolean separated) throws IOException {
+        if (!cjWriteIterator.hasNext()) {
+            return;
+        }
+        if (!separated) {
+            writer.write(lineSeparator);
+        }
+        cjWriteIterator.remainingTo(writer);
+    }
+
+    /**
+     * Read the header of the file, the reader is left at the first row
+     *
+     * @param reader:  The reader of the file
+     * @param scanner: The scanner of the file
+     * @return header: The header line without its line separator
+     */
+    private String readHeader(Reader reader, Scanner scanner) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            line.append((char) c);
+            if (scanner.next((char) c)) {
+                line.setLength(line.length() - lineSeparator.length());
+                break;
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Copy the rows of the file, padding each non empty row with the added cells
+     *
+     * @param reader:  The reader of the file, at the first row
+     * @param writer:  The writer of the temporary file
+     * @param scanner: The scanner of the file
+     * @param padding: The added cells of each row
+     * @return boolean: Whether the rows end with a line separator, or there are none
+     */
+    private boolean copyRows(Reader reader, Writer writer, Scanner scanner, String padding) throws IOException {
+        char[] chars = new char[bufferSize];
+        CJCharBuffer out = new CJCharBuffer(bufferSize + padding.length() + lineSeparator.length());
+        boolean emptyRow = true;
+        int read;
+        while ((read = reader.read(chars)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = chars[i];
+                // The chars of a partial line separator are held until it is matched
+                int held = scanner.held();
+                if (scanner.next(c)) {
+                    if (!emptyRow) {
+                        out.append(padding);
+                    }
+                    out.append(lineSeparator);
+                    emptyRow = true;
+                } else if (scanner.held() <= held) {
+                    out.append(lineSeparator, 0, held);
+                    if (scanner.held() == 0) {
+                        out.append(c);
+                    }
+                    emptyRow = false;
+                }
+            }
+            if (out.length() >= bufferSize) {
+                out.appendTo(writer);
+                out.clear();
+            }
+        }
+        if (scanner.held() > 0) {
+            out.append(lineSeparator, 0, scanner.held());
+            emptyRow = false;
+        }
+        if (!emptyRow) {
+            out.append(padding);
+        }
+        out.appendTo(writer);
+        return emptyRow;
+    }
+
+    /**
+     * Split the header line into its names, unquoted like `CJReader`
+     */
+    private List<String> cells(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean inQuotes = false;
+        boolean cellStart = true;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == escapeChar && i + 1 < line.length()
+                        && (escapeChar != quoteChar || line.charAt(i + 1) == quoteChar)) {
+                    cell.append(line.charAt(++i));
+                } else if (c == quoteChar) {
+                    inQuotes = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == quoteChar && cellStart) {
+                inQuotes = true;
+                cellStart = false;
+            } else if (!delimiter.isEmpty() && line.startsWith(delimiter, i)) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                i += delimiter.length() - 1;
+                cellStart = true;
+            } else {
+                cell.append(c);
+                cellStart = false;
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /**
+     * Check if the file ends with the text, reading only its last bytes
+     */
+    private static boolean endsWith(Path path, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < bytes.length) {
+                return false;
+            }
+            ByteBuffer tail = ByteBuffer.allocate(bytes.length);
+            while (tail.hasRemaining() && channel.read(tail, size - bytes.length + tail.position()) >= 0) {
+                // Read until the tail is full
+            }
+            return Arrays.equals(tail.array(), bytes);
+        }
+    }
+
+    private static void move(Path temp, Path path) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Find the line separators outside the quoted cells, like `CJReader`.
+     * The chars are scanned one by one so the rows can be streamed
+     */
+    private final class Scanner {
+        private boolean inQuotes;
+        private boolean closing;
+        private boolean escaped;
+        private boolean cellStart = true;
+        private int delimiterMatched;
+        private int separatorMatched;
+
+        /**
+         * Scan the next char
+         *
+         * @return boolean: Whether the char ends a line separator
+         */
+        boolean next(char c) {
+            if (inQuotes) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == escapeChar && escapeChar != quoteChar) {
+                    escaped = true;
+                } else if (c == quoteChar) {
+                    inQuotes = false;
+                    closing = true;
+                }
+                return false;
+            }
+            if (closing) {
+                // A doubled quote is an escaped quote of the quoted cell
+                closing = false;
+                if (c == quoteChar && escapeChar == quoteChar) {
+                    inQuotes = true;
+                    return false;
+                }
+            }
+            if (c == quoteChar && cellStart) {
+                inQuotes = true;
+                cellStart = false;
+                return false;
+            }
+            cellStart = false;
+            delimiterMatched = match(delimiter, delimiterMatched, c);
+            if (!delimiter.isEmpty() && delimiterMatched == delimiter.length()) {
+                delimiterMatched = 0;
+                cellStart = true;
+            }
+            separatorMatched = match(lineSeparator, separatorMatched, c);
+            if (!lineSeparator.isEmpty() && separatorMatched == lineSeparator.length()) {
+                separatorMatched = 0;
+                delimiterMatched = 0;
+                cellStart = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Get the number of the scanned chars of a partial line separator
+         */
+        int held() {
+            return separatorMatched;
+        }
+
+        private int match(String pattern, int matched, char c) {
+            if (pattern.isEmpty()) {
+                return 0;
+            }
+            if (pattern.charAt(matched) == c) {
+                return matched + 1;
+            }
+            return pattern.charAt(0) == c ? 1 : 0;
+        }
+    }
+}
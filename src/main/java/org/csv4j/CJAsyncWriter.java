@@ -0,0 +1,266 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * CJAsyncWriter hands the chars to a dedicated I/O thread that
+ * writes them to the writer, so rendering and writing overlap.
+ *
+ * The chars are buffered and the full buffers go through a bounded
+ * ring to the I/O thread, which returns them to a pool once written.
+ * The producer blocks when the ring is full. A failure of the I/O thread
+ * is thrown back to the producer by the next write, `flush` or `close`,
+ * and the I/O thread discards the buffers after a failure so the
+ * producer never waits on it forever
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJAsyncWriter extends Writer {
+
+    /**
+     * The default number of the buffers in the ring
+     */
+    public static final int DEFAULT_BUFFERS = 16;
+
+    private static final Object END = new Object();
+
+    private final Writer writer;
+    private final Boolean closeWriter;
+    private final int bufferSize;
+    private final BlockingQueue<Object> ring;
+    private final Queue<CJCharBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private CJCharBuffer current;
+    private volatile Throwable failure;
+    private boolean reported;
+    private boolean closed;
+
+    /**
+     * Args Constructor
+     *
+     * @param writer:      The writer written by the I/O thread
+     * @param closeWriter: Whether closing this writer closes the writer
+     * @param bufferSize:  The number of chars buffered before they are handed to the I/O thread
+     * @param buffers:     The number of the buffers in the ring
+     */
+    public CJAsyncWriter(Writer writer, Boolean closeWriter, int bufferSize, int buffers) {
+        this.writer = writer;
+        this.closeWriter = closeWriter;
+        this.bufferSize = Math.max(bufferSize, 16);
+        this.ring = new ArrayBlockingQueue<>(Math.max(buffers, 1));
+        this.current = new CJCharBuffer(this.bufferSize);
+        this.thread = new Thread(this::drain, "csv4j-io");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Args Constructor, the writer is closed with this writer
+     *
+     * @param writer: The writer written by the I/O thread
+     */
+    public CJAsyncWriter(Writer writer) {
+        this(writer, true, CJWriteIterator.DEFAULT_BUFFER_SIZE, DEFAULT_BUFFERS);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        checkFailure();
+        current.append((char) c);
+        handOffFull();
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        checkFailure();
+        current.append(cbuf, off, len);
+        handOffFull();
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        checkFailure();
+        current.append(str, off, off + len);
+        handOffFull();
+    }
+
+    /**
+     * Hand a rendered buffer to the I/O thread without copying it,
+     * after the chars written before it
+     *
+     * @param rendered: The buffer to write, it is owned by the I/O thread once handed
+     * @return buffer: An empty buffer to render to
+     */
+    CJCharBuffer handOff(CJCharBuffer rendered) throws IOException {
+        checkFailure();
+        if (current.length() > 0) {
+            put(current);
+            current = freeBuffer();
+        }
+        put(rendered);
+        return freeBuffer();
+    }
+
+    /**
+     * Wait until the I/O thread writes all the chars and flushes the writer
+     */
+    @Override
+    public void flush() throws IOException {
+        checkFailure();
+        if (current.length() > 0) {
+            put(current);
+            current = freeBuffer();
+        }
+        CountDownLatch flushed = new CountDownLatch(1);
+        put(flushed);
+        try {
+            flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        checkFailure();
+    }
+
+    /**
+     * Flush the chars and stop the I/O thread, a failure already thrown is not
+     * thrown again. The writer is only closed once the I/O thread has stopped.
+     * When the producer is interrupted the chars not written yet are discarded,
+     * the I/O thread only finishes its current write, and the interrupt is kept
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean interrupted = false;
+        try {
+            if (!reported) {
+                flush();
+            }
+        } catch (InterruptedIOException e) {
+            interrupted = true;
+            throw e;
+        } finally {
+            interrupted |= Thread.interrupted();
+            if (interrupted && failure == null) {
+                failure = new InterruptedIOException();
+            }
+            try {
+                stop();
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (closeWriter) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Hand the end to the I/O thread and wait for it to stop, whatever the interrupts,
+     * so the I/O thread never outlives this writer
+     */
+    private void stop() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ring.put(END);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write the handed buffers until the end, the loop of the I/O thread
+     */
+    private void drain() {
+        try {
+            while (true) {
+                Object item = ring.take();
+                if (item == END) {
+                    return;
+                }
+                if (item instanceof CountDownLatch) {
+                    if (failure == null) {
+                        try {
+                            writer.flush();
+                        } catch (IOException | RuntimeException e) {
+                            failure = e;
+                        }
+                    }
+                    ((CountDownLatch) item).countDown();
+                    continue;
+                }
+                CJCharBuffer buffer = (CJCharBuffer) item;
+                if (failure == null) {
+                    try {
+                        buffer.appendTo(writer);
+                    } catch (IOException | RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                buffer.clear();
+                freeBuffers.offer(buffer);
+            }
+        } catch (InterruptedException e) {
+            failure = e;
+        }
+    }
+
+    private void handOffFull() throws IOException {
+        if (current.length() >= bufferSize) {
+            put(current);
+            current = freeBuffer();
+        }
+    }
+
+    private CJCharBuffer freeBuffer() {
+        CJCharBuffer buffer = freeBuffers.poll();
+        return buffer == null ? new CJCharBuffer(bufferSize) : buffer;
+    }
+
+    private void put(Object item) throws IOException {
+        try {
+            ring.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable throwable = failure;
+        if (throwable == null) {
+            return;
+        }
+        reported = true;
+        if (throwable instanceof IOException) {
+            throw new IOException(throwable.getMessage(), throwable);
+        }
+        throw new IOException(throwable);
+    }
+}
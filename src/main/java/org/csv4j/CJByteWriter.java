@@ -0,0 +1,286 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * CJByteWriter is a UTF-8 writer that encodes the chars straight
+ * into a pooled byte buffer and writes it to a byte channel.
+ * Only the buffers of the default size are pooled, at most
+ * `POOL_SIZE` of them, the others are left to the garbage collector.
+ *
+ * ASCII chars are copied with a single range check, only the
+ * non ASCII chars go through the UTF-8 encoding. Unpaired surrogates
+ * are replaced with '?', the same as the JDK encoder
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJByteWriter extends Writer {
+
+    /**
+     * The default size of the byte buffer
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private static final int POOL_SIZE = 16;
+
+    private static final Queue<ByteBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final WritableByteChannel channel;
+    private final Boolean closeChannel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private char highSurrogate;
+    private CJMetricsListener metrics = CJMetricsListener.NONE;
+    private long bytesWritten;
+
+    /**
+     * Args Constructor
+     *
+     * @param channel:      The channel to write the bytes to
+     * @param closeChannel: Whether closing the writer closes the channel
+     * @param bufferSize:   The size of the byte buffer
+     */
+    public CJByteWriter(WritableByteChannel channel, Boolean closeChannel, int bufferSize) {
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.buffer = borrow(Math.max(bufferSize, 16));
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Args Constructor, the channel is closed with the writer
+     *
+     * @param channel: The channel to write the bytes to
+     */
+    public CJByteWriter(WritableByteChannel channel) {
+        this(channel, true, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Args Constructor, the stream is closed with the writer
+     *
+     * @param out: The stream to write the bytes to
+     */
+    public CJByteWriter(OutputStream out) {
+        this(Channels.newChannel(out), true, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Open a writer to the file, the file is created or truncated
+     *
+     * @param path: The file path
+     * @return writer: The writer of the file channel
+     */
+    public static CJByteWriter open(Path path) throws IOException {
+        return new CJByteWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * The listener of the bytes written to the channel -> default NONE
+     */
+    public CJByteWriter metrics(CJMetricsListener metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Get the number of the bytes written to the channel so far
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (position + 4 > bytes.length) {
+            drain();
+        }
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        while (off < end) {
+            if (position == bytes.length) {
+                drain();
+            }
+            // ASCII fast path, bounded by the free space of the buffer
+            int stop = Math.min(end, off + bytes.length - position);
+            if (highSurrogate == 0) {
+                int pos = position;
+                char c;
+                while (off < stop && (c = cbuf[off]) < 0x80) {
+                    bytes[pos++] = (byte) c;
+                    off++;
+                }
+                position = pos;
+            }
+            if (off < stop) {
+                if (position + 4 > bytes.length) {
+                    drain();
+                }
+                encode(cbuf[off++]);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        int end = off + len;
+        while (off < end) {
+            if (position == bytes.length) {
+                drain();
+            }
+            int stop = Math.min(end, off + bytes.length - position);
+            if (highSurrogate == 0) {
+                int pos = position;
+                char c;
+                while (off < stop && (c = str.charAt(off)) < 0x80) {
+                    bytes[pos++] = (byte) c;
+                    off++;
+                }
+                position = pos;
+            }
+            if (off < stop) {
+                if (position + 4 > bytes.length) {
+                    drain();
+                }
+                encode(str.charAt(off++));
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                write('?');
+            }
+            drain();
+        } finally {
+            if (buffer.capacity() == DEFAULT_BUFFER_SIZE) {
+                POOL.offer(buffer);
+            }
+            buffer = null;
+            bytes = null;
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Encode a single char, the buffer has room for 4 bytes
+     */
+    private void encode(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // The replacement and a BMP char fit in the reserved 4 bytes
+            bytes[position++] = '?';
+        }
+
+        if (c < 0x80) {
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | (c >> 6));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[position++] = '?';
+        } else {
+            bytes[position++] = (byte) (0xE0 | (c >> 12));
+            bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Write the encoded bytes to the channel
+     */
+    private void drain() throws IOException {
+        boolean timed = metrics != CJMetricsListener.NONE && position > 0;
+        long start = timed ? System.nanoTime() : 0;
+        buffer.clear();
+        buffer.limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (timed) {
+            metrics.bytesWritten(position, System.nanoTime() - start);
+        }
+        bytesWritten += position;
+        buffer.clear();
+        position = 0;
+    }
+
+    /**
+     * Get the number of the bytes the chars are encoded to,
+     * the same way they are written
+     *
+     * @param chars: The chars to encode
+     * @return length: The UTF-8 length of the chars
+     */
+    static long utf8Length(CharSequence chars) {
+        long length = 0;
+        int size = chars.length();
+        for (int i = 0; i < size; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static ByteBuffer borrow(int bufferSize) {
+        if (bufferSize == DEFAULT_BUFFER_SIZE) {
+            ByteBuffer pooled = POOL.poll();
+            if (pooled != null) {
+                pooled.clear();
+                return pooled;
+            }
+        }
+        return ByteBuffer.allocate(bufferSize);
+    }
+}
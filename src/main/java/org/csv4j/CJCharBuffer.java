@@ -0,0 +1,299 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * CJCharBuffer is a growable char buffer the rows are rendered into.
+ *
+ * Unlike StringBuilder its content can be handed to a writer
+ * without copying, and numbers are appended without creating
+ * intermediate Strings. A buffer is reused across rows
+ *
+ * @author Omar Muhtaseb
+ */
+public final class CJCharBuffer implements Appendable, CharSequence {
+
+    private static final char[] MIN_LONG = "-9223372036854775808".toCharArray();
+    private static final char[] MIN_INT = "-2147483648".toCharArray();
+
+    /**
+     * The tens and the ones digits of 0 to 99, numbers are written two digits at a time
+     */
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private char[] chars;
+    private int length;
+
+    /**
+     * Args Constructor
+     *
+     * @param capacity: The initial capacity in chars
+     */
+    public CJCharBuffer(int capacity) {
+        this.chars = new char[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Default Constructor
+     */
+    public CJCharBuffer() {
+        this(CJWriteIterator.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * The number of chars in the buffer
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Get the backing array, valid up to `length()`
+     */
+    public char[] array() {
+        return chars;
+    }
+
+    /**
+     * Empty the buffer keeping its capacity
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * Truncate the buffer to the length
+     */
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public CJCharBuffer append(char c) {
+        ensureCapacity(1);
+        chars[length++] = c;
+        return this;
+    }
+
+    /**
+     * Append the string, "null" when null
+     */
+    public CJCharBuffer append(String str) {
+        if (str == null) {
+            str = "null";
+        }
+        int len = str.length();
+        ensureCapacity(len);
+        str.getChars(0, len, chars, length);
+        length += len;
+        return this;
+    }
+
+    @Override
+    public CJCharBuffer append(CharSequence csq) {
+        if (csq instanceof String || csq == null) {
+            return append((String) csq);
+        }
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public CJCharBuffer append(CharSequence csq, int start, int end) {
+        if (csq == null) {
+            return append("null", start, end);
+        }
+        ensureCapacity(end - start);
+        if (csq instanceof String) {
+            ((String) csq).getChars(start, end, chars, length);
+            length += end - start;
+        } else {
+            for (int i = start; i < end; i++) {
+                chars[length++] = csq.charAt(i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append the chars
+     */
+    public CJCharBuffer append(char[] str, int offset, int len) {
+        ensureCapacity(len);
+        System.arraycopy(str, offset, chars, length, len);
+        length += len;
+        return this;
+    }
+
+    /**
+     * Append the decimal representation of the int
+     */
+    public CJCharBuffer append(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return append(MIN_INT, 0, MIN_INT.length);
+        }
+
+        ensureCapacity(11);
+        if (value < 0) {
+            chars[length++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+
+        int pos = length + digits;
+        length = pos;
+        while (value >= 100) {
+            int pair = value % 100;
+            value /= 100;
+            chars[--pos] = DIGIT_ONES[pair];
+            chars[--pos] = DIGIT_TENS[pair];
+        }
+        appendHead(value, pos);
+        return this;
+    }
+
+    /**
+     * Append the decimal representation of the long
+     */
+    public CJCharBuffer append(long value) {
+        if (value == (int) value) {
+            return append((int) value);
+        }
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG, 0, MIN_LONG.length);
+        }
+
+        ensureCapacity(20);
+        if (value < 0) {
+            chars[length++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+
+        int pos = length + digits;
+        length = pos;
+        while (value > Integer.MAX_VALUE) {
+            int pair = (int) (value % 100);
+            value /= 100;
+            chars[--pos] = DIGIT_ONES[pair];
+            chars[--pos] = DIGIT_TENS[pair];
+        }
+        int rest = (int) value;
+        while (rest >= 100) {
+            int pair = rest % 100;
+            rest /= 100;
+            chars[--pos] = DIGIT_ONES[pair];
+            chars[--pos] = DIGIT_TENS[pair];
+        }
+        appendHead(rest, pos);
+        return this;
+    }
+
+    /**
+     * Append the value padded with zeros to the digits
+     *
+     * @param value:  The positive value
+     * @param digits: The number of the digits, 1 to 9
+     */
+    CJCharBuffer appendPadded(int value, int digits) {
+        ensureCapacity(digits);
+        int pos = length + digits;
+        length = pos;
+        for (int i = 0; i < digits; i += 2) {
+            int pair = value % 100;
+            value /= 100;
+            chars[--pos] = DIGIT_ONES[pair];
+            if (i + 1 < digits) {
+                chars[--pos] = DIGIT_TENS[pair];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write the one or two leading digits ending before the position
+     */
+    private void appendHead(int value, int pos) {
+        if (value >= 10) {
+            chars[--pos] = DIGIT_ONES[value];
+            chars[--pos] = DIGIT_TENS[value];
+        } else {
+            chars[--pos] = (char) ('0' + value);
+        }
+    }
+
+    /**
+     * Append "true" or "false"
+     */
+    public CJCharBuffer append(boolean value) {
+        return append(value ? "true" : "false");
+    }
+
+    /**
+     * Write the content of the buffer to the writer
+     *
+     * @param writer: The writer to write to
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writer.write(chars, 0, length);
+    }
+
+    /**
+     * Append the content of the buffer to the appendable
+     *
+     * @param out: The appendable to append to
+     */
+    public void appendTo(Appendable out) throws IOException {
+        if (out instanceof Writer) {
+            writeTo((Writer) out);
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, 0, length);
+        } else if (out instanceof CJCharBuffer) {
+            ((CJCharBuffer) out).append(chars, 0, length);
+        } else {
+            out.append(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+
+    void ensureCapacity(int extra) {
+        if (length + extra > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + extra));
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package org.csv4j;
 
+import org.csv4j.exception.CJException;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * CJColumn the core class of the csv4j
@@ -12,13 +17,46 @@ class CJColumn {
     private String cjName;
     private Boolean isCJMap;
     private Boolean isCJStaticMap;
+    private String[] cjMapKeys;
+    private MethodHandle getter;
+    private Class<?> type;
+    private CJFormatter<Object> fieldFormatter;
+    private CJFormatter<Object> formatter;
+    private int cacheSize;
+    private CJKeyBounds keyBounds;
+    private CJValueCache cache;
     private LinkedHashSet<Object> mapKeys;
+    private Set<Object> droppedKeys = Collections.emptySet();
+    private boolean overflowDropped;
+    private Object[] mapKeysArray;
+
+    CJColumn(String fieldName, String cjName, Boolean isCJMap, Boolean isCJStaticMap,
+             String[] cjMapKeys, MethodHandle getter) {
+        this(fieldName, cjName, isCJMap, isCJStaticMap, cjMapKeys, getter, Object.class, null, 0, CJKeyBounds.NONE);
+    }
 
-    CJColumn(String fieldName, String cjName, Boolean isCJMap, Boolean isCJStaticMap) {
+    CJColumn(String fieldName, String cjName, Boolean isCJMap, Boolean isCJStaticMap,
+             String[] cjMapKeys, MethodHandle getter, Class<?> type, CJFormatter<Object> fieldFormatter,
+             int cacheSize, CJKeyBounds keyBounds) {
         this.fieldName = fieldName;
         this.cjName = cjName;
         this.isCJMap = isCJMap;
         this.isCJStaticMap = isCJStaticMap;
+        this.cjMapKeys = cjMapKeys;
+        this.getter = getter;
+        this.type = type;
+        this.fieldFormatter = fieldFormatter;
+        this.cacheSize = cacheSize;
+        this.keyBounds = keyBounds;
+    }
+
+    /**
+     * Copy the compiled column without its map keys, formatter and cache,
+     * they are resolved per structure
+     */
+    CJColumn copy() {
+        return new CJColumn(fieldName, cjName, isCJMap, isCJStaticMap, cjMapKeys, getter, type, fieldFormatter,
+                cacheSize, keyBounds);
     }
 
     String getFieldName() {
@@ -37,11 +75,125 @@ class CJColumn {
         return isCJStaticMap;
     }
 
+    /**
+     * The keys defined in the CJMap annotation, empty
+     * when the column is not a CJMap
+     */
+    String[] getCjMapKeys() {
+        return cjMapKeys;
+    }
+
+    /**
+     * The declared type of the values, Object when unknown
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * The formatter set on the field with `CJFormat`, null when not set
+     */
+    CJFormatter<Object> getFieldFormatter() {
+        return fieldFormatter;
+    }
+
+    /**
+     * The formatter of the values resolved for the structure,
+     * null when the values are rendered by default
+     */
+    CJFormatter<Object> getFormatter() {
+        return formatter;
+    }
+
+    void setFormatter(CJFormatter<Object> formatter) {
+        this.formatter = formatter;
+    }
+
+    /**
+     * The max number of the cached cells, 0 when the cells are not cached
+     */
+    int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * The cache of the rendered cells, null when the cells are not cached
+     */
+    CJValueCache getCache() {
+        return cache;
+    }
+
+    void setCache(CJValueCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * The bounds of the discovery of the map keys, NONE when unbounded
+     */
+    CJKeyBounds getKeyBounds() {
+        return keyBounds;
+    }
+
+    /**
+     * Check if the map has an overflow column after the columns of its keys
+     */
+    boolean hasOverflow() {
+        return isCJMap && keyBounds.hasOverflow() && !overflowDropped;
+    }
+
+    void setOverflowDropped(boolean overflowDropped) {
+        this.overflowDropped = overflowDropped;
+    }
+
+    /**
+     * Check if the key was found but left out by the selected columns,
+     * its entries are not written to the overflow column
+     */
+    boolean isDroppedKey(Object key) {
+        return droppedKeys.contains(key);
+    }
+
+    Set<Object> getDroppedKeys() {
+        return droppedKeys;
+    }
+
+    void setDroppedKeys(Set<Object> droppedKeys) {
+        this.droppedKeys = droppedKeys;
+    }
+
     LinkedHashSet<Object> getMapKeys() {
         return mapKeys;
     }
 
     void setMapKeys(LinkedHashSet<Object> mapKeys) {
         this.mapKeys = mapKeys;
+        this.mapKeysArray = null;
+    }
+
+    /**
+     * Get the map keys as an array, it is cached on the first
+     * call once the structure keys are final
+     */
+    Object[] getMapKeysArray() {
+        if (mapKeysArray == null) {
+            mapKeysArray = mapKeys.toArray();
+        }
+        return mapKeysArray;
+    }
+
+    /**
+     * Read the column value from the bean using the compiled getter
+     *
+     * @param bean: The object to read the value from
+     * @return value: The field value
+     */
+    Object getValue(Object bean) {
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new CJException(new Exception(t));
+        }
     }
 }
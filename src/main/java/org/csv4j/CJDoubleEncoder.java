@@ -0,0 +1,319 @@
+package org.csv4j;
+
+import java.math.BigInteger;
+
+/**
+ * CJDoubleEncoder appends the shortest decimal that reads back
+ * as the same double, with the Ryu algorithm.
+ *
+ * The digits are those of `Double.toString` since Java 19, whatever the
+ * JVM version, and the notation is the one of `Double.toString`: scientific
+ * below 10^-3 and from 10^7, and at least one digit after the point.
+ * It only uses long arithmetic and it appends straight to the buffer
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJDoubleEncoder {
+
+    private static final int MANTISSA_BITS = 52;
+    private static final long MANTISSA_MASK = (1L << MANTISSA_BITS) - 1;
+    private static final int EXPONENT_MASK = (1 << 11) - 1;
+    private static final int EXPONENT_BIAS = (1 << 10) - 1;
+
+    private static final int POS_TABLE_SIZE = 326;
+    private static final int NEG_TABLE_SIZE = 291;
+    private static final int POW5_BITCOUNT = 121;
+    private static final int POW5_INV_BITCOUNT = 122;
+    private static final int QUARTER_BITCOUNT = 31;
+
+    /**
+     * 5^i and the inverses of 5^i, split into four 31 bits quarters
+     */
+    private static final int[][] POW5_SPLIT = new int[POS_TABLE_SIZE][4];
+    private static final int[][] POW5_INV_SPLIT = new int[NEG_TABLE_SIZE][4];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(QUARTER_BITCOUNT).subtract(BigInteger.ONE);
+        for (int i = 0; i < POS_TABLE_SIZE; i++) {
+            BigInteger pow = BigInteger.valueOf(5).pow(i);
+            int pow5len = pow.bitLength();
+            for (int j = 0; j < 4; j++) {
+                POW5_SPLIT[i][j] = pow.shiftRight(pow5len - POW5_BITCOUNT + (3 - j) * QUARTER_BITCOUNT)
+                        .and(mask).intValue();
+            }
+            if (i < NEG_TABLE_SIZE) {
+                BigInteger inv = BigInteger.ONE.shiftLeft(pow5len - 1 + POW5_INV_BITCOUNT).divide(pow)
+                        .add(BigInteger.ONE);
+                for (int j = 0; j < 4; j++) {
+                    BigInteger quarter = inv.shiftRight((3 - j) * QUARTER_BITCOUNT);
+                    POW5_INV_SPLIT[i][j] = (j == 0 ? quarter : quarter.and(mask)).intValue();
+                }
+            }
+        }
+    }
+
+    private CJDoubleEncoder() {
+    }
+
+    /**
+     * Append the shortest representation of the double
+     *
+     * @param value: The double
+     * @param out:   The buffer to append to
+     */
+    static void append(double value, CJCharBuffer out) {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+            return;
+        }
+        if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "Infinity" : "-Infinity");
+            return;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        if ((bits & ~Long.MIN_VALUE) == 0) {
+            out.append(bits == 0 ? "0.0" : "-0.0");
+            return;
+        }
+
+        int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & EXPONENT_MASK);
+        long ieeeMantissa = bits & MANTISSA_MASK;
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - EXPONENT_BIAS - MANTISSA_BITS;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - EXPONENT_BIAS - MANTISSA_BITS;
+            m2 = ieeeMantissa | (1L << MANTISSA_BITS);
+        }
+
+        // The interval of the decimals reading back as the double, scaled by 4
+        boolean even = (m2 & 1) == 0;
+        long mv = 4 * m2;
+        long mp = 4 * m2 + 2;
+        int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+        long mm = 4 * m2 - 1 - mmShift;
+        e2 -= 2;
+
+        // Convert the interval to a decimal base
+        long dv;
+        long dp;
+        long dm;
+        int e10;
+        boolean dmIsTrailingZeros = false;
+        boolean dvIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = Math.max(0, ((e2 * 78913) >>> 18) - 1);
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            dv = mulPow5InvDivPow2(mv, q, i);
+            dp = mulPow5InvDivPow2(mp, q, i);
+            dm = mulPow5InvDivPow2(mm, q, i);
+            e10 = q;
+            if (q <= 21) {
+                if (mv % 5 == 0) {
+                    dvIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (even) {
+                    dmIsTrailingZeros = multipleOfPowerOf5(mm, q);
+                } else if (multipleOfPowerOf5(mp, q)) {
+                    dp--;
+                }
+            }
+        } else {
+            int q = Math.max(0, ((-e2 * 732923) >>> 20) - 1);
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            dv = mulPow5DivPow2(mv, i, j);
+            dp = mulPow5DivPow2(mp, i, j);
+            dm = mulPow5DivPow2(mm, i, j);
+            e10 = q + e2;
+            if (q <= 1) {
+                dvIsTrailingZeros = true;
+                if (even) {
+                    dmIsTrailingZeros = mmShift == 1;
+                } else {
+                    dp--;
+                }
+            } else if (q < 63) {
+                dvIsTrailingZeros = (mv & ((1L << (q - 1)) - 1)) == 0;
+            }
+        }
+
+        // Remove the digits while the interval holds a shorter decimal,
+        // keeping two digits in scientific notation like Double.toString
+        int exp = e10 + decimalLength(dp) - 1;
+        boolean scientific = exp < -3 || exp >= 7;
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (dmIsTrailingZeros || dvIsTrailingZeros) {
+            while (dp / 10 > dm / 10) {
+                if (dp < 100 && scientific) {
+                    break;
+                }
+                dmIsTrailingZeros &= dm % 10 == 0;
+                dvIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (dv % 10);
+                dp /= 10;
+                dv /= 10;
+                dm /= 10;
+                removed++;
+            }
+            if (dmIsTrailingZeros && even) {
+                while (dm % 10 == 0) {
+                    if (dp < 100 && scientific) {
+                        break;
+                    }
+                    dvIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (dv % 10);
+                    dp /= 10;
+                    dv /= 10;
+                    dm /= 10;
+                    removed++;
+                }
+            }
+            if (dvIsTrailingZeros && lastRemovedDigit == 5 && dv % 2 == 0) {
+                // Round to even
+                lastRemovedDigit = 4;
+            }
+            output = dv + ((dv == dm && !(dmIsTrailingZeros && even)) || lastRemovedDigit >= 5 ? 1 : 0);
+        } else {
+            while (dp / 10 > dm / 10) {
+                if (dp < 100 && scientific) {
+                    break;
+                }
+                lastRemovedDigit = (int) (dv % 10);
+                dp /= 10;
+                dv /= 10;
+                dm /= 10;
+                removed++;
+            }
+            output = dv + (dv == dm || lastRemovedDigit >= 5 ? 1 : 0);
+        }
+        int length = decimalLength(output);
+        exp = e10 + removed + length - 1;
+
+        if (bits < 0) {
+            out.append('-');
+        }
+        if (scientific) {
+            appendScientific(output, length, exp, out);
+        } else {
+            appendPlain(output, length, exp, out);
+        }
+    }
+
+    /**
+     * Append the digits as d.dddEx
+     */
+    private static void appendScientific(long output, int length, int exp, CJCharBuffer out) {
+        int start = out.length();
+        out.append(output);
+        if (length == 1) {
+            out.append('0');
+        }
+        // Shift the digits after the first one to insert the point
+        out.ensureCapacity(1);
+        char[] chars = out.array();
+        int end = out.length();
+        System.arraycopy(chars, start + 1, chars, start + 2, end - start - 1);
+        chars[start + 1] = '.';
+        out.setLength(end + 1);
+        out.append('E');
+        out.append(exp);
+    }
+
+    /**
+     * Append the digits with the point at the exponent, 10^-3 <= value < 10^7
+     */
+    private static void appendPlain(long output, int length, int exp, CJCharBuffer out) {
+        if (exp < 0) {
+            out.append('0').append('.');
+            for (int i = -1; i > exp; i--) {
+                out.append('0');
+            }
+            out.append(output);
+            return;
+        }
+        if (exp + 1 >= length) {
+            out.append(output);
+            for (int i = length; i < exp + 1; i++) {
+                out.append('0');
+            }
+            out.append('.').append('0');
+            return;
+        }
+        int start = out.length();
+        out.append(output);
+        out.ensureCapacity(1);
+        char[] chars = out.array();
+        int point = start + exp + 1;
+        int end = out.length();
+        System.arraycopy(chars, point, chars, point + 1, end - point);
+        chars[point] = '.';
+        out.setLength(end + 1);
+    }
+
+    private static int pow5bits(int e) {
+        return ((e * 1217359) >>> 19) + 1;
+    }
+
+    private static int decimalLength(long v) {
+        int length = 1;
+        for (long p = 10; length < 19 && v >= p; p *= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean multipleOfPowerOf5(long value, int q) {
+        return pow5Factor(value) >= q;
+    }
+
+    private static int pow5Factor(long value) {
+        int count = 0;
+        while (value > 0 && value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * The high digits of m * 5^i / 2^j
+     */
+    private static long mulPow5DivPow2(long m, int i, int j) {
+        return mulShift(m, POW5_SPLIT[i], j);
+    }
+
+    /**
+     * The high digits of m / 5^q / 2^j, by the inverse of 5^q
+     */
+    private static long mulPow5InvDivPow2(long m, int q, int j) {
+        return mulShift(m, POW5_INV_SPLIT[q], j);
+    }
+
+    /**
+     * Multiply the mantissa, at most 55 bits, by the 124 bits factor
+     * and shift the product right by j bits
+     */
+    private static long mulShift(long m, int[] factor, int j) {
+        long mHigh = m >>> 31;
+        long mLow = m & 0x7fffffff;
+        long bits13 = mHigh * factor[0];
+        long bits03 = mLow * factor[0];
+        long bits12 = mHigh * factor[1];
+        long bits02 = mLow * factor[1];
+        long bits11 = mHigh * factor[2];
+        long bits01 = mLow * factor[2];
+        long bits10 = mHigh * factor[3];
+        long bits00 = mLow * factor[3];
+        int shift = j - 3 * 31 - 21;
+        return ((((((((bits00 >>> 31) + bits01 + bits10) >>> 31)
+                + bits02 + bits11) >>> 31)
+                + bits03 + bits12) >>> 21)
+                + (bits13 << 10)) >>> shift;
+    }
+}
@@ -0,0 +1,49 @@
+package org.csv4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default executor of the asynchronous exports
+ *
+ * A virtual thread per export when the runtime supports them, looked
+ * up at runtime so the core stays Java 8 compatible. The multi release
+ * jar built by the jdk21 profile replaces this class for Java 21 and
+ * calls them directly. Otherwise a cached pool of daemon threads
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJExecutors {
+
+    private static final Executor EXPORTS = exportsExecutor();
+
+    private CJExecutors() {
+    }
+
+    /**
+     * Get the default executor of the asynchronous exports
+     */
+    static Executor exports() {
+        return EXPORTS;
+    }
+
+    private static Executor exportsExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(daemonThreads());
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "csv4j-export-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
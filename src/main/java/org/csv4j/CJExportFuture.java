@@ -0,0 +1,149 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CJExportFuture is the future of an export run on an executor.
+ *
+ * It is only completed once the export has returned or thrown, so its
+ * writer or channel is released by then. Cancelling it returns at once:
+ * the export stops before the next bean pulled from the source, whether
+ * it is buffered, spilled or rendered, `cancel(true)` interrupts the
+ * export thread as well, and the future is cancelled once it has stopped.
+ * An export not started yet is cancelled at once and never runs
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJExportFuture extends CompletableFuture<CJExportResult> {
+
+    private final Object lock = new Object();
+    private volatile boolean stopRequested;
+    private volatile Thread runner;
+    private volatile Runnable onStop;
+
+    /**
+     * Run the export on the calling thread, unless it is cancelled first
+     *
+     * @param export: The export, given this future
+     */
+    void run(CJThrowingFunction<CJExportFuture, CJExportResult, IOException> export) {
+        synchronized (lock) {
+            if (stopRequested) {
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+        CJExportResult result = null;
+        Throwable failure = null;
+        try {
+            result = export.apply(this);
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            synchronized (lock) {
+                runner = null;
+                if (stopRequested) {
+                    // Clear the interrupt of `cancel(true)`, the thread goes back to the executor
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        if (failure == null) {
+            complete(result);
+        } else if (stopRequested) {
+            super.cancel(false);
+        } else {
+            completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Set what stops the rendering once the future is cancelled
+     *
+     * @param stop: Stops the rendering before the next row
+     */
+    void onStop(Runnable stop) {
+        this.onStop = stop;
+        if (stopRequested) {
+            stop.run();
+        }
+    }
+
+    /**
+     * Get the beans of the export, throwing a CancellationException
+     * before the next bean once the future is cancelled, so the export
+     * stops while its structure is built as well
+     *
+     * @param beans: The iterable of data, a collection stays a collection
+     */
+    <E> Iterable<E> stoppable(Iterable<E> beans) {
+        if (beans instanceof Collection) {
+            Collection<E> collection = (Collection<E>) beans;
+            return new AbstractCollection<E>() {
+                @Override
+                public Iterator<E> iterator() {
+                    return stoppable(collection.iterator());
+                }
+
+                @Override
+                public int size() {
+                    return collection.size();
+                }
+            };
+        }
+        return beans == null ? null : () -> stoppable(beans.iterator());
+    }
+
+    private <E> Iterator<E> stoppable(Iterator<E> beans) {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                if (stopRequested) {
+                    throw new CancellationException();
+                }
+                return beans.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return beans.next();
+            }
+        };
+    }
+
+    /**
+     * Stop the export without waiting for it, the future is cancelled once
+     * the export has stopped, or at once when it is not running
+     *
+     * @param mayInterruptIfRunning: Interrupt the export thread
+     * @return cancelled: False when the export was done first
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (isDone()) {
+            return false;
+        }
+        Thread thread;
+        synchronized (lock) {
+            stopRequested = true;
+            thread = runner;
+            if (thread != null && mayInterruptIfRunning && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+        Runnable stop = onStop;
+        if (stop != null) {
+            stop.run();
+        }
+        if (thread == null) {
+            super.cancel(mayInterruptIfRunning);
+        }
+        return true;
+    }
+}
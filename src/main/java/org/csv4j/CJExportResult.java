@@ -0,0 +1,39 @@
+package org.csv4j;
+
+/**
+ * The result of an export
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJExportResult {
+
+    private final long rows;
+    private final long chars;
+    private final long bytes;
+
+    /**
+     * Args Constructor
+     *
+     * @param rows:  The number of the rows written, the header excluded
+     * @param chars: The number of the chars of the rows written, the header excluded
+     * @param bytes: The number of the bytes written to the target, the header included,
+     *               compressed when gzip is on. -1 when the target is a writer taking the chars
+     */
+    public CJExportResult(long rows, long chars, long bytes) {
+        this.rows = rows;
+        this.chars = chars;
+        this.bytes = bytes;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getChars() {
+        return chars;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
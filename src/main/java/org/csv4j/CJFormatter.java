@@ -0,0 +1,53 @@
+package org.csv4j;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * CJFormatter renders the non null values of a type as cells
+ *
+ * The formatter appends the cell straight to the row buffer, it
+ * is quoted afterwards when the quote mode requires it. Formatters are
+ * registered per type on the `CJWriter` or set per field with `CJFormat`,
+ * and they are resolved once per column when the structure is built.
+ * They are called concurrently in parallel mode
+ *
+ * @author Omar Muhtaseb
+ */
+@FunctionalInterface
+public interface CJFormatter<T> {
+
+    /**
+     * Append the cell of the value
+     *
+     * @param value: The value, never null
+     * @param out:   The row buffer to append the cell to
+     */
+    void format(T value, CJCharBuffer out);
+
+    /**
+     * Format the dates and times with the formatter, straight to the buffer
+     *
+     * @param formatter: The date time formatter
+     */
+    static <T extends TemporalAccessor> CJFormatter<T> temporal(DateTimeFormatter formatter) {
+        return formatter::formatTo;
+    }
+
+    /**
+     * Format the decimals without an exponent
+     */
+    static CJFormatter<BigDecimal> plainDecimal() {
+        return ToString::decimalValue;
+    }
+
+    /**
+     * Format the enums by their name whatever their `toString`,
+     * registered for `Enum.class` or for an enum class
+     */
+    @SuppressWarnings("rawtypes")
+    static CJFormatter<Enum> enumName() {
+        return (value, out) -> out.append(value.name());
+    }
+}
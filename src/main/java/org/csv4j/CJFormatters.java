@@ -0,0 +1,114 @@
+package org.csv4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CJFormatters is the registry of the formatters of a `CJWriter`
+ *
+ * The formatter of a type is the one registered for the type, or else for
+ * its nearest superclass, or else for the first registered interface it
+ * implements. The lookups are cached per class
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJFormatters {
+
+    private static final CJFormatter<Object> NONE = (value, out) -> {
+    };
+
+    private final Map<Class<?>, CJFormatter<?>> registered = new LinkedHashMap<>();
+    private final Map<Class<?>, CJFormatter<Object>> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Register the formatter of the type and its subtypes
+     */
+    void register(Class<?> type, CJFormatter<?> formatter) {
+        registered.put(wrap(type), formatter);
+        resolved.clear();
+    }
+
+    boolean isEmpty() {
+        return registered.isEmpty();
+    }
+
+    /**
+     * Get the formatter of the column cached on it when the structure is built
+     *
+     * The formatter of the declared type is used when no registered type is
+     * narrower, otherwise the formatter is looked up per value class,
+     * falling back to the default rendering
+     *
+     * @param type:     The declared type of the column values
+     * @param fallback: The default rendering
+     * @return formatter: The formatter, null when the default rendering is always used
+     */
+    CJFormatter<Object> resolve(Class<?> type, CJFormatter<Object> fallback) {
+        if (registered.isEmpty()) {
+            return null;
+        }
+        Class<?> declared = wrap(type);
+        boolean narrower = registered.keySet().stream()
+                .anyMatch(registeredType -> registeredType != declared && declared.isAssignableFrom(registeredType));
+        if (!narrower) {
+            return formatter(declared);
+        }
+        return (value, out) -> {
+            CJFormatter<Object> formatter = formatter(value.getClass());
+            (formatter == null ? fallback : formatter).format(value, out);
+        };
+    }
+
+    /**
+     * Get the formatter of the class
+     *
+     * @param clazz: The class of the value
+     * @return formatter: The formatter, null when none is registered for the class
+     */
+    @SuppressWarnings("unchecked")
+    CJFormatter<Object> formatter(Class<?> clazz) {
+        CJFormatter<Object> formatter = resolved.computeIfAbsent(clazz, k -> {
+            for (Class<?> c = k; c != null; c = c.getSuperclass()) {
+                CJFormatter<?> found = registered.get(c);
+                if (found != null) {
+                    return (CJFormatter<Object>) found;
+                }
+            }
+            return registered.entrySet().stream()
+                    .filter(entry -> entry.getKey().isAssignableFrom(k))
+                    .map(entry -> (CJFormatter<Object>) entry.getValue())
+                    .findFirst()
+                    .orElse(NONE);
+        });
+        return formatter == NONE ? null : formatter;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == float.class) {
+            return Float.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+}
@@ -0,0 +1,229 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * CJGzipChannel compresses the bytes written to it as gzip, on the
+ * threads of a pool shared with the other channels.
+ *
+ * The bytes are split into blocks and every block is compressed
+ * concurrently to an independent gzip member. The members are written
+ * to the channel in order, and a stream of concatenated members is a
+ * valid gzip stream read by `gunzip` and `GZIPInputStream`. At most
+ * twice the threads blocks are pending, so the memory stays
+ * bounded whatever the size of the output
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJGzipChannel implements WritableByteChannel {
+
+    /**
+     * The default size of the uncompressed blocks
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private static final int HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+
+    private final WritableByteChannel channel;
+    private final Boolean closeChannel;
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final int maxPending;
+    private final Deque<ForkJoinTask<ByteBuffer>> pending = new ArrayDeque<>();
+    private final Queue<byte[]> freeBlocks = new ConcurrentLinkedQueue<>();
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private byte[] block;
+    private int position;
+    private boolean written;
+    private boolean open = true;
+
+    /**
+     * Args Constructor
+     *
+     * @param channel:      The channel to write the gzip stream to
+     * @param closeChannel: Whether closing this channel closes the channel
+     * @param blockSize:    The size of the uncompressed blocks
+     * @param pool:         The pool compressing the blocks, it is not shut down
+     * @param threads:      The number of the blocks compressed at once
+     */
+    public CJGzipChannel(WritableByteChannel channel, Boolean closeChannel, int blockSize, ForkJoinPool pool,
+                         int threads) {
+        this.channel = channel;
+        this.closeChannel = closeChannel;
+        this.pool = pool;
+        this.blockSize = Math.max(blockSize, 1024);
+        this.maxPending = Math.max(threads, 1) * 2;
+        this.block = new byte[this.blockSize];
+    }
+
+    /**
+     * Args Constructor, the blocks are compressed on the common pool
+     *
+     * @param channel:      The channel to write the gzip stream to
+     * @param closeChannel: Whether closing this channel closes the channel
+     * @param blockSize:    The size of the uncompressed blocks
+     * @param threads:      The number of the blocks compressed at once
+     */
+    public CJGzipChannel(WritableByteChannel channel, Boolean closeChannel, int blockSize, int threads) {
+        this(channel, closeChannel, blockSize, ForkJoinPool.commonPool(), threads);
+    }
+
+    /**
+     * Args Constructor, the channel is closed with this channel
+     *
+     * @param channel: The channel to write the gzip stream to
+     */
+    public CJGzipChannel(WritableByteChannel channel) {
+        this(channel, true, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool().getParallelism());
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        int count = src.remaining();
+        while (src.hasRemaining()) {
+            int length = Math.min(src.remaining(), blockSize - position);
+            src.get(block, position, length);
+            position += length;
+            if (position == blockSize) {
+                submit();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Compress the last block and write all the pending members.
+     * An empty stream is written as one empty member
+     */
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            if (position > 0 || !written) {
+                submit();
+            }
+            while (!pending.isEmpty()) {
+                writeMember();
+            }
+        } finally {
+            // A failed close leaves blocks in compression, their deflaters are ended once they are done
+            pending.forEach(ForkJoinTask::quietlyJoin);
+            pending.clear();
+            deflaters.forEach(Deflater::end);
+            if (closeChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Hand the current block to the pool and write the oldest
+     * member once the pending blocks reach the limit
+     */
+    private void submit() throws IOException {
+        byte[] data = block;
+        int length = position;
+        pending.add(pool.submit(() -> compress(data, length)));
+        written = true;
+
+        byte[] free = freeBlocks.poll();
+        block = free == null ? new byte[blockSize] : free;
+        position = 0;
+
+        if (pending.size() >= maxPending) {
+            writeMember();
+        }
+    }
+
+    /**
+     * Write the oldest pending member to the channel
+     */
+    private void writeMember() throws IOException {
+        ByteBuffer member = pending.poll().join();
+        while (member.hasRemaining()) {
+            channel.write(member);
+        }
+    }
+
+    /**
+     * Compress the block to a gzip member
+     *
+     * @param data:   The block
+     * @param length: The number of the bytes in the block
+     * @return member: The gzip member of the block
+     */
+    private ByteBuffer compress(byte[] data, int length) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+
+        byte[] out = new byte[HEADER_SIZE + length + (length >> 8) + 64 + TRAILER_SIZE];
+        int n = writeHeader(out);
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (n == out.length - TRAILER_SIZE) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            n += deflater.deflate(out, n, out.length - TRAILER_SIZE - n);
+        }
+        deflater.reset();
+        deflaters.add(deflater);
+        freeBlocks.add(data);
+
+        n = writeInt(out, n, (int) crc.getValue());
+        n = writeInt(out, n, length);
+        return ByteBuffer.wrap(out, 0, n);
+    }
+
+    /**
+     * Write the gzip member header, deflate without a name,
+     * a time or extra fields
+     */
+    private static int writeHeader(byte[] out) {
+        out[0] = (byte) 0x1f;
+        out[1] = (byte) 0x8b;
+        out[2] = Deflater.DEFLATED;
+        // flags, mtime and xfl are zeros
+        out[9] = (byte) 0xff;
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Write a little endian int
+     */
+    private static int writeInt(byte[] out, int n, int value) {
+        out[n++] = (byte) value;
+        out[n++] = (byte) (value >> 8);
+        out[n++] = (byte) (value >> 16);
+        out[n++] = (byte) (value >> 24);
+        return n;
+    }
+}
@@ -0,0 +1,137 @@
+package org.csv4j;
+
+import org.csv4j.annotation.CJMap;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * CJKeyBounds bounds the discovery of the keys of a dynamic map,
+ * set with `CJMap.scanLimit()`, `sampleRate()`, `maxKeys()` and `overflow()`.
+ *
+ * The discovery stops once the scan limit or the max keys are reached,
+ * so its cost and the width of the header don't grow with the data
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJKeyBounds {
+
+    /**
+     * The unbounded discovery, all the keys of all the beans
+     */
+    static final CJKeyBounds NONE = new CJKeyBounds(0, 1, 0, "");
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final long scanLimit;
+    private final double sampleRate;
+    private final int maxKeys;
+    private final String overflow;
+
+    /**
+     * Args Constructor
+     *
+     * @param scanLimit:  The number of the first beans scanned, 0 scans all the beans
+     * @param sampleRate: The fraction of the scanned beans sampled
+     * @param maxKeys:    The max number of the keys, 0 is unlimited
+     * @param overflow:   The header name of the overflow column, empty for none
+     */
+    CJKeyBounds(long scanLimit, double sampleRate, int maxKeys, String overflow) {
+        this.scanLimit = Math.max(scanLimit, 0);
+        this.sampleRate = sampleRate;
+        this.maxKeys = Math.max(maxKeys, 0);
+        this.overflow = overflow == null ? "" : overflow;
+    }
+
+    /**
+     * Get the bounds set on the map with `CJMap`
+     */
+    static CJKeyBounds of(CJMap cjMap) {
+        return of(cjMap.scanLimit(), cjMap.sampleRate(), cjMap.maxKeys(), cjMap.overflow());
+    }
+
+    /**
+     * Get the bounds of the `CJMap` attributes, NONE when unbounded
+     */
+    static CJKeyBounds of(long scanLimit, double sampleRate, int maxKeys, String overflow) {
+        if (scanLimit <= 0 && sampleRate >= 1 && maxKeys <= 0 && (overflow == null || overflow.isEmpty())) {
+            return NONE;
+        }
+        return new CJKeyBounds(scanLimit, sampleRate, maxKeys, overflow);
+    }
+
+    /**
+     * The number of the first beans scanned, 0 when all the beans are scanned
+     */
+    long getScanLimit() {
+        return scanLimit;
+    }
+
+    /**
+     * The header name of the overflow column, empty when there is no overflow column
+     */
+    String getOverflow() {
+        return overflow;
+    }
+
+    boolean hasOverflow() {
+        return !overflow.isEmpty();
+    }
+
+    /**
+     * Start a discovery of the keys
+     */
+    Scan scan() {
+        return new Scan();
+    }
+
+    /**
+     * The keys found in the beans scanned so far, in their found order
+     */
+    final class Scan {
+        private final Set<Object> keys = new LinkedHashSet<>();
+        private final SplittableRandom random = new SplittableRandom(SEED);
+        private long scanned;
+
+        /**
+         * Check if the next beans can still add keys
+         */
+        boolean isOpen() {
+            return (scanLimit == 0 || scanned < scanLimit) && (maxKeys == 0 || keys.size() < maxKeys);
+        }
+
+        /**
+         * Scan the map of the next bean
+         *
+         * @param map: The map of the bean, null when the bean has none
+         */
+        void offer(Map<?, ?> map) {
+            if (!isOpen()) {
+                return;
+            }
+            scanned++;
+            if (map == null || (sampleRate < 1 && random.nextDouble() >= sampleRate)) {
+                return;
+            }
+            if (maxKeys == 0) {
+                keys.addAll(map.keySet());
+                return;
+            }
+            for (Object key : map.keySet()) {
+                if (keys.size() >= maxKeys) {
+                    return;
+                }
+                keys.add(key);
+            }
+        }
+
+        /**
+         * Get the found keys
+         */
+        Set<Object> getKeys() {
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.csv4j;
+
+/**
+ * CJMetricsListener receives the metrics of the exports
+ *
+ * The callbacks are made on the exporting thread, and none of them
+ * is made per row: the rows are counted locally and reported each
+ * time the rendered chars are handed to the writer, every `bufferSize`
+ * chars. The listener should return quickly and export the numbers
+ * to the monitoring asynchronously. All the methods are no-ops by default
+ *
+ * @author Omar Muhtaseb
+ */
+public interface CJMetricsListener {
+
+    /**
+     * The listener ignoring all the metrics, the default of `CJWriter`
+     */
+    CJMetricsListener NONE = new CJMetricsListener() {
+    };
+
+    /**
+     * The structure of the csv is built
+     *
+     * @param clazz:          The model class, null for a `CJSchema`
+     * @param buildNanos:     The time to build the structure, the map scan included
+     * @param mapScanNanos:   The time to scan the beans for the dynamic maps keys,
+     *                        the spilling time in single pass mode
+     * @param dynamicColumns: The number of the columns discovered in the dynamic maps
+     */
+    default void structureBuilt(Class clazz, long buildNanos, long mapScanNanos, int dynamicColumns) {
+    }
+
+    /**
+     * A buffer of rendered rows is handed to the writer
+     *
+     * @param rows:       The number of the rows in the buffer
+     * @param chars:      The number of the chars in the buffer
+     * @param flushNanos: The time the writer took to take the chars
+     */
+    default void flushed(int rows, int chars, long flushNanos) {
+    }
+
+    /**
+     * The progress of the export, reported after each flush
+     *
+     * @param rows:      The number of the rows written so far
+     * @param totalRows: The total number of the rows, null when unknown
+     */
+    default void progress(long rows, Integer totalRows) {
+    }
+
+    /**
+     * The bytes encoded by a `CJByteWriter` are written to its channel
+     *
+     * @param bytes:      The number of the bytes
+     * @param writeNanos: The time the channel took to write the bytes
+     */
+    default void bytesWritten(int bytes, long writeNanos) {
+    }
+
+    /**
+     * The counters of the cache of a column, reported once its rows are all written
+     *
+     * @param column: The name of the column, or of the map field
+     * @param hits:   The number of the cells copied from the cache
+     * @param misses: The number of the cells rendered
+     * @param size:   The number of the cached cells
+     */
+    default void valueCache(String column, long hits, long misses, int size) {
+    }
+
+    /**
+     * The rows of the export are all written
+     *
+     * @param rows:  The number of the rows written, the header excluded
+     * @param chars: The number of the chars written, the header excluded
+     * @param nanos: The time to render and write the rows
+     */
+    default void completed(long rows, long chars, long nanos) {
+    }
+}
@@ -0,0 +1,23 @@
+package org.csv4j;
+
+/**
+ * Parses a csv cell back to a field value
+ *
+ * The cell is given as a range of the reader buffer so
+ * numbers can be parsed without creating a String
+ *
+ * @author Omar Muhtaseb
+ */
+@FunctionalInterface
+interface CJParser {
+
+    /**
+     * Parse the cell
+     *
+     * @param chars: The buffer holding the cell
+     * @param start: The cell start, inclusive
+     * @param end:   The cell end, exclusive
+     * @return value: The parsed value
+     */
+    Object parse(char[] chars, int start, int end);
+}
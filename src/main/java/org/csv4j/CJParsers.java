@@ -0,0 +1,343 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * CJParsers builds the parsers of the field types, the reverse
+ * of the representation written by `CJWriteIterator` and `ToString`
+ *
+ * @author Omar Muhtaseb
+ */
+class CJParsers {
+
+    private static final String NULL = "null";
+
+    /**
+     * Get the parser of the type
+     *
+     * @param type:      The field type
+     * @param separator: The separator of items in collections, arrays and maps
+     * @return parser: The parser of the type
+     */
+    static CJParser parser(Type type, String separator) {
+        Class<?> raw = rawType(type);
+
+        if (raw == String.class || raw == Object.class || raw == CharSequence.class) {
+            return (chars, start, end) -> new String(chars, start, end - start);
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return (chars, start, end) -> (int) parseLong(chars, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        if (raw == long.class || raw == Long.class) {
+            return (chars, start, end) -> parseLong(chars, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        if (raw == short.class || raw == Short.class) {
+            return (chars, start, end) -> (short) parseLong(chars, start, end, Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+        if (raw == byte.class || raw == Byte.class) {
+            return (chars, start, end) -> (byte) parseLong(chars, start, end, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        }
+        if (raw == double.class || raw == Double.class) {
+            return (chars, start, end) -> Double.parseDouble(new String(chars, start, end - start));
+        }
+        if (raw == float.class || raw == Float.class) {
+            return (chars, start, end) -> Float.parseFloat(new String(chars, start, end - start));
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return (chars, start, end) -> Boolean.parseBoolean(new String(chars, start, end - start));
+        }
+        if (raw == char.class || raw == Character.class) {
+            return (chars, start, end) -> end > start ? chars[start] : null;
+        }
+        if (raw == BigDecimal.class) {
+            return (chars, start, end) -> new BigDecimal(chars, start, end - start);
+        }
+        if (raw == BigInteger.class) {
+            return (chars, start, end) -> new BigInteger(new String(chars, start, end - start));
+        }
+        if (raw.isEnum()) {
+            return (chars, start, end) -> enumValue(raw, new String(chars, start, end - start));
+        }
+        if (raw.isArray()) {
+            return arrayParser(raw.getComponentType(), separator);
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            return collectionParser(raw, typeArgument(type, 0), separator);
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return mapParser(raw, typeArgument(type, 0), typeArgument(type, 1), separator);
+        }
+        return factoryParser(raw);
+    }
+
+    /**
+     * Get the factory of an empty collection or map of the type
+     *
+     * @param raw: The collection or map class
+     * @return supplier: The factory of new instances
+     */
+    static Supplier<Object> factory(Class<?> raw) {
+        if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            if (ConcurrentMap.class.isAssignableFrom(raw)) {
+                return ConcurrentHashMap::new;
+            }
+            if (SortedMap.class.isAssignableFrom(raw)) {
+                return TreeMap::new;
+            }
+            if (Map.class.isAssignableFrom(raw)) {
+                return LinkedHashMap::new;
+            }
+            if (SortedSet.class.isAssignableFrom(raw)) {
+                return TreeSet::new;
+            }
+            if (Set.class.isAssignableFrom(raw)) {
+                return LinkedHashSet::new;
+            }
+            if (Queue.class.isAssignableFrom(raw)) {
+                return ArrayDeque::new;
+            }
+            return ArrayList::new;
+        }
+
+        try {
+            Constructor<?> constructor = raw.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new CJException(e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            throw new CJException(e);
+        }
+    }
+
+    /**
+     * Get the class of the type
+     */
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return rawType(((ParameterizedType) type).getRawType());
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * Get the type argument of a parameterized type, Object when unknown
+     */
+    static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Check if the range holds the string
+     */
+    static boolean matches(char[] chars, int start, int end, String str) {
+        if (end - start != str.length()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (chars[i] != str.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse an integral number without creating a String
+     */
+    private static long parseLong(char[] chars, int start, int end, long min, long max) {
+        if (end - start > 18 || end == start) {
+            return checkRange(Long.parseLong(new String(chars, start, end - start)), min, max, chars, start, end);
+        }
+        boolean negative = chars[start] == '-';
+        int i = (negative || chars[start] == '+') ? start + 1 : start;
+        if (i == end) {
+            throw new NumberFormatException(new String(chars, start, end - start));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(new String(chars, start, end - start));
+            }
+            value = value * 10 + digit;
+        }
+        return checkRange(negative ? -value : value, min, max, chars, start, end);
+    }
+
+    private static long checkRange(long value, long min, long max, char[] chars, int start, int end) {
+        if (value < min || value > max) {
+            throw new NumberFormatException("Value out of range: " + new String(chars, start, end - start));
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object enumValue(Class<?> raw, String name) {
+        return Enum.valueOf((Class<Enum>) raw, name);
+    }
+
+    /**
+     * Parse `[a;b]` to an array
+     */
+    private static CJParser arrayParser(Class<?> component, String separator) {
+        CJParser element = parser(component, separator);
+        return (chars, start, end) -> {
+            List<Object> items = items(chars, start, end, separator, element);
+            Object array = Array.newInstance(component, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) != null || !component.isPrimitive()) {
+                    Array.set(array, i, items.get(i));
+                }
+            }
+            return array;
+        };
+    }
+
+    /**
+     * Parse `[a;b]` to a collection
+     */
+    @SuppressWarnings("unchecked")
+    private static CJParser collectionParser(Class<?> raw, Type elementType, String separator) {
+        CJParser element = parser(elementType, separator);
+        Supplier<Object> factory = factory(raw);
+        return (chars, start, end) -> {
+            Collection<Object> collection = (Collection<Object>) factory.get();
+            collection.addAll(items(chars, start, end, separator, element));
+            return collection;
+        };
+    }
+
+    /**
+     * Parse `{k=v;k=v}` to a map
+     */
+    @SuppressWarnings("unchecked")
+    private static CJParser mapParser(Class<?> raw, Type keyType, Type valueType, String separator) {
+        CJParser key = parser(keyType, separator);
+        CJParser value = parser(valueType, separator);
+        Supplier<Object> factory = factory(raw);
+        return (chars, start, end) -> {
+            Map<Object, Object> map = (Map<Object, Object>) factory.get();
+            forEachItem(chars, start, end, separator, (itemStart, itemEnd) -> {
+                int eq = itemStart;
+                while (eq < itemEnd && chars[eq] != '=') {
+                    eq++;
+                }
+                map.put(parseItem(chars, itemStart, eq, key),
+                        parseItem(chars, Math.min(eq + 1, itemEnd), itemEnd, value));
+            });
+            return map;
+        };
+    }
+
+    private static List<Object> items(char[] chars, int start, int end, String separator, CJParser element) {
+        List<Object> items = new ArrayList<>();
+        forEachItem(chars, start, end, separator,
+                (itemStart, itemEnd) -> items.add(parseItem(chars, itemStart, itemEnd, element)));
+        return items;
+    }
+
+    private static Object parseItem(char[] chars, int start, int end, CJParser element) {
+        return matches(chars, start, end, NULL) ? null : element.parse(chars, start, end);
+    }
+
+    /**
+     * Split the inner range of `[...]` or `{...}` by the separator
+     */
+    private static void forEachItem(char[] chars, int start, int end, String separator, ItemConsumer consumer) {
+        if (end - start >= 2) {
+            start++;
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        int itemStart = start;
+        int i = start;
+        while (i <= end - separator.length()) {
+            if (matches(chars, i, i + separator.length(), separator)) {
+                consumer.accept(itemStart, i);
+                i += separator.length();
+                itemStart = i;
+            } else {
+                i++;
+            }
+        }
+        consumer.accept(itemStart, end);
+    }
+
+    /**
+     * Parse other types through their `valueOf(String)`, `parse(CharSequence)`
+     * or `(String)` constructor
+     */
+    private static CJParser factoryParser(Class<?> raw) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle factory = null;
+        try {
+            factory = lookup.findStatic(raw, "valueOf", MethodType.methodType(raw, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException ignored) {
+        }
+        if (factory == null) {
+            try {
+                factory = lookup.findStatic(raw, "parse", MethodType.methodType(raw, CharSequence.class));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            }
+        }
+        if (factory == null) {
+            try {
+                factory = lookup.findConstructor(raw, MethodType.methodType(void.class, String.class));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+            }
+        }
+        if (factory == null) {
+            throw new CJException(CJExceptionMessages.UNSUPPORTED_TYPE);
+        }
+
+        MethodHandle handle = factory.asType(MethodType.methodType(Object.class, String.class));
+        return (chars, start, end) -> {
+            try {
+                return (Object) handle.invokeExact(new String(chars, start, end - start));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new CJException(new Exception(t));
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface ItemConsumer {
+        void accept(int start, int end);
+    }
+}
@@ -0,0 +1,45 @@
+package org.csv4j;
+
+import org.csv4j.annotation.CJName;
+
+/**
+ * A part of a split csv, written as a row of the manifest
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJPart {
+
+    @CJName("File")
+    private String file;
+
+    @CJName("Rows")
+    private Long rows;
+
+    @CJName("Bytes")
+    private Long bytes;
+
+    /**
+     * Args Constructor
+     *
+     * @param file:  The path of the part file
+     * @param rows:  The number of the rows, the header excluded
+     * @param bytes: The size of the part file
+     */
+    public CJPart(String file, Long rows, Long bytes) {
+        this.file = file;
+        this.rows = rows;
+        this.bytes = bytes;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public Long getRows() {
+        return rows;
+    }
+
+    public Long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,292 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CJProjection selects the columns written by `CJWriter.columns` or `exclude`.
+ *
+ * A name is the header name or the field name of a column. A map field name
+ * selects all its keys, a key name only its column, and the name of an overflow
+ * column that column. The compiled plan is pruned before the structure is built,
+ * so the unselected columns are never read and the unselected dynamic maps never
+ * scanned, then the keys of the maps are restricted once found. The cells are
+ * only reordered after rendering when keys of different maps are interleaved
+ * with other columns
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJProjection {
+
+    private final List<String> names;
+    private final Set<String> namesSet;
+    private final boolean exclude;
+
+    private CJProjection(String[] names, boolean exclude) {
+        this.names = Collections.unmodifiableList(Arrays.asList(names.clone()));
+        this.namesSet = new HashSet<>(this.names);
+        this.exclude = exclude;
+    }
+
+    /**
+     * Select only the named columns, in the names order
+     */
+    static CJProjection columns(String... names) {
+        return new CJProjection(names, false);
+    }
+
+    /**
+     * Select all the columns except the named ones
+     */
+    static CJProjection exclude(String... names) {
+        return new CJProjection(names, true);
+    }
+
+    /**
+     * Prune the compiled columns to the selected ones, in the selection order.
+     * A map is kept when it is named, its overflow column is named, or some
+     * names match no column so they may be keys of the map
+     *
+     * @param plan: The compiled columns
+     * @return plan: The selected columns, the compiled columns are not modified
+     */
+    List<CJColumn> plan(List<CJColumn> plan) {
+        List<CJColumn> selected = new ArrayList<>();
+        if (exclude) {
+            for (CJColumn cjColumn : plan) {
+                if (!isNamed(cjColumn)) {
+                    selected.add(cjColumn);
+                }
+            }
+            return selected;
+        }
+
+        int keysPosition = keysPosition(plan);
+        Map<CJColumn, Integer> positions = new HashMap<>();
+        for (CJColumn cjColumn : plan) {
+            int position = position(cjColumn);
+            if (cjColumn.isCJMap()) {
+                position = Math.min(position, keysPosition);
+            }
+            if (position < Integer.MAX_VALUE) {
+                positions.put(cjColumn, position);
+                selected.add(cjColumn);
+            }
+        }
+        // A stable sort, the maps sharing the keys names keep their order
+        selected.sort(Comparator.comparing(positions::get));
+        return selected;
+    }
+
+    /**
+     * Restrict the found keys of a map to the selected ones, in the selection order.
+     * The keys left out are dropped, they don't go to the overflow column
+     *
+     * @param cjColumn: The map column of the structure
+     */
+    void keys(CJColumn cjColumn) {
+        if (!exclude && isNamed(cjColumn)) {
+            return;
+        }
+        LinkedHashSet<Object> keys = new LinkedHashSet<>();
+        Set<Object> dropped = new HashSet<>();
+        if (exclude) {
+            for (Object key : cjColumn.getMapKeys()) {
+                (namesSet.contains(String.valueOf(key)) ? dropped : keys).add(key);
+            }
+        } else {
+            Map<String, Object> found = new HashMap<>();
+            for (Object key : cjColumn.getMapKeys()) {
+                found.putIfAbsent(String.valueOf(key), key);
+            }
+            for (String name : names) {
+                Object key = found.get(name);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+            for (Object key : cjColumn.getMapKeys()) {
+                if (!keys.contains(key)) {
+                    dropped.add(key);
+                }
+            }
+        }
+        cjColumn.setMapKeys(keys);
+        cjColumn.setDroppedKeys(dropped);
+        cjColumn.setOverflowDropped(exclude == isOverflowNamed(cjColumn));
+    }
+
+    /**
+     * Get the order of the rendered cells of the structure, when the selection
+     * interleaves keys of maps with other columns
+     *
+     * @param structure: The columns of the structure, with their final keys
+     * @return projection: The source cell of each written cell, null when they are in order
+     */
+    int[] cells(List<CJColumn> structure) {
+        if (exclude) {
+            return null;
+        }
+        List<int[]> columnsCells = new ArrayList<>();
+        int cells = 0;
+        for (CJColumn cjColumn : structure) {
+            int width = cjColumn.isCJMap()
+                    ? cjColumn.getMapKeys().size() + (cjColumn.hasOverflow() ? 1 : 0)
+                    : 1;
+            int[] columnCells = new int[width];
+            for (int i = 0; i < width; i++) {
+                columnCells[i] = cells++;
+            }
+            columnsCells.add(columnCells);
+        }
+
+        int[] projection = new int[cells];
+        boolean[] projected = new boolean[cells];
+        int length = 0;
+        for (String name : names) {
+            for (int c = 0; c < structure.size(); c++) {
+                CJColumn cjColumn = structure.get(c);
+                int[] columnCells = columnsCells.get(c);
+                if (isNamed(cjColumn, name)) {
+                    for (int cell : columnCells) {
+                        length = add(projection, projected, length, cell);
+                    }
+                } else if (cjColumn.isCJMap()) {
+                    Object[] keys = cjColumn.getMapKeysArray();
+                    for (int k = 0; k < keys.length; k++) {
+                        if (String.valueOf(keys[k]).equals(name)) {
+                            length = add(projection, projected, length, columnCells[k]);
+                        }
+                    }
+                    if (cjColumn.hasOverflow() && cjColumn.getKeyBounds().getOverflow().equals(name)) {
+                        length = add(projection, projected, length, columnCells[keys.length]);
+                    }
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            length = add(projection, projected, length, cell);
+        }
+
+        for (int i = 0; i < cells; i++) {
+            if (projection[i] != i) {
+                return projection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check the names once the maps keys are final. Every name must match a column,
+     * an overflow column, a key declared on a map or a key found in the beans,
+     * and at least a column must be left to write
+     *
+     * @param plan:      The compiled columns, before the pruning
+     * @param structure: The columns of the structure, with their final keys
+     */
+    void check(List<CJColumn> plan, List<CJColumn> structure) {
+        for (String name : names) {
+            if (!matches(plan, structure, name)) {
+                throw new CJException(CJExceptionMessages.UNKNOWN_COLUMN + ": " + name);
+            }
+        }
+        boolean empty = structure.stream().allMatch(cjColumn -> cjColumn.isCJMap()
+                && cjColumn.getMapKeys().isEmpty() && !cjColumn.hasOverflow());
+        if (empty) {
+            throw new CJException(CJExceptionMessages.NO_COLUMNS);
+        }
+    }
+
+    private static boolean matches(List<CJColumn> plan, List<CJColumn> structure, String name) {
+        for (CJColumn cjColumn : plan) {
+            if (isNamed(cjColumn, name)
+                    || (cjColumn.getKeyBounds().hasOverflow() && cjColumn.getKeyBounds().getOverflow().equals(name))
+                    || Arrays.asList(cjColumn.getCjMapKeys()).contains(name)) {
+                return true;
+            }
+        }
+        for (CJColumn cjColumn : structure) {
+            if (cjColumn.isCJMap()
+                    && (containsName(cjColumn.getMapKeys(), name) || containsName(cjColumn.getDroppedKeys(), name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsName(Set<Object> keys, String name) {
+        for (Object key : keys) {
+            if (String.valueOf(key).equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int add(int[] projection, boolean[] projected, int length, int cell) {
+        if (projected[cell]) {
+            return length;
+        }
+        projected[cell] = true;
+        projection[length] = cell;
+        return length + 1;
+    }
+
+    /**
+     * Get the first position of the names of the column, or of its overflow column
+     */
+    private int position(CJColumn cjColumn) {
+        for (int i = 0; i < names.size(); i++) {
+            if (isNamed(cjColumn, names.get(i))
+                    || (cjColumn.hasOverflow() && cjColumn.getKeyBounds().getOverflow().equals(names.get(i)))) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the first position of the names matching no column nor overflow
+     * column of the plan, they may be keys of the maps
+     */
+    private int keysPosition(List<CJColumn> plan) {
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            boolean matched = false;
+            for (CJColumn cjColumn : plan) {
+                if (isNamed(cjColumn, name)
+                        || (cjColumn.hasOverflow() && cjColumn.getKeyBounds().getOverflow().equals(name))) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return i;
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private boolean isNamed(CJColumn cjColumn) {
+        return namesSet.contains(cjColumn.getCjName()) || namesSet.contains(cjColumn.getFieldName());
+    }
+
+    private static boolean isNamed(CJColumn cjColumn, String name) {
+        return cjColumn.getCjName().equals(name) || cjColumn.getFieldName().equals(name);
+    }
+
+    private boolean isOverflowNamed(CJColumn cjColumn) {
+        return cjColumn.getKeyBounds().hasOverflow() && namesSet.contains(cjColumn.getKeyBounds().getOverflow());
+    }
+}
@@ -0,0 +1,35 @@
+package org.csv4j;
+
+/**
+ * The quoting modes of the csv cells
+ *
+ * A quoted cell is wrapped by the quote char and its quote chars
+ * are escaped by the escape char, "" by default as in RFC 4180.
+ * Null cells are never quoted so they can be told apart from the
+ * "null" strings when read back
+ *
+ * @author Omar Muhtaseb
+ */
+public enum CJQuoteMode {
+
+    /**
+     * Quote only the cells holding the delimiter, the line separator,
+     * a quote, an escape, a carriage return or a line feed
+     */
+    MINIMAL,
+
+    /**
+     * Quote all the cells
+     */
+    ALL,
+
+    /**
+     * Quote all the cells except the numbers
+     */
+    NON_NUMERIC,
+
+    /**
+     * Write the cells raw, as they are rendered
+     */
+    NONE
+}
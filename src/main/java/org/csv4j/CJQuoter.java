@@ -0,0 +1,162 @@
+package org.csv4j;
+
+/**
+ * CJQuoter quotes and escapes the cells as they are rendered
+ *
+ * A cell is checked right after it is appended to the row buffer,
+ * while its chars are still hot, so a clean cell is only scanned once
+ * and never copied again. A cell that needs quoting is escaped in place
+ * from its end to its start
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJQuoter {
+
+    /**
+     * The quoter of the raw cells
+     */
+    static final CJQuoter NONE = new CJQuoter(CJQuoteMode.NONE, '"', '"', ",", "\n");
+
+    private final CJQuoteMode mode;
+    private final char quote;
+    private final char escape;
+    private final char delimiter;
+    private final char lineSeparator;
+
+    /**
+     * Args Constructor
+     *
+     * @param mode:          The quoting mode
+     * @param quote:         The char wrapping the quoted cells
+     * @param escape:        The char escaping the quotes in the quoted cells
+     * @param delimiter:     The delimiter between cols
+     * @param lineSeparator: The line separator between rows
+     */
+    CJQuoter(CJQuoteMode mode, char quote, char escape, String delimiter, String lineSeparator) {
+        this.mode = mode;
+        this.quote = quote;
+        this.escape = escape;
+        // Checking the first char is enough, a cell ending with the start
+        // of a multi chars delimiter must be quoted as well
+        this.delimiter = delimiter.isEmpty() ? quote : delimiter.charAt(0);
+        this.lineSeparator = lineSeparator.isEmpty() ? quote : lineSeparator.charAt(0);
+    }
+
+    /**
+     * Quote the cell appended to the buffer when the mode requires it
+     *
+     * @param out:     The buffer holding the cell
+     * @param start:   The start of the cell in the buffer
+     * @param numeric: Whether the cell is a number
+     */
+    void quote(CJCharBuffer out, int start, boolean numeric) {
+        switch (mode) {
+            case NONE:
+                return;
+            case MINIMAL:
+                if (!needsQuotes(out.array(), start, out.length())) {
+                    return;
+                }
+                break;
+            case NON_NUMERIC:
+                if (numeric) {
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        wrap(out, start);
+    }
+
+    /**
+     * Append the text as a quoted cell when the mode requires it
+     *
+     * @param out:  The buffer to append to
+     * @param text: The cell text
+     */
+    void append(CJCharBuffer out, String text) {
+        int start = out.length();
+        out.append(text);
+        quote(out, start, false);
+    }
+
+    /**
+     * Render the text as a standalone cell
+     *
+     * @param text: The cell text
+     * @return cell: The quoted cell when the mode requires it
+     */
+    String cell(String text) {
+        if (mode == CJQuoteMode.NONE) {
+            return text;
+        }
+        CJCharBuffer out = new CJCharBuffer(text.length() + 2);
+        append(out, text);
+        return out.toString();
+    }
+
+    /**
+     * Append the text of a cell rendered by this quoter, without its quotes and escapes
+     *
+     * @param chars: The chars holding the cell
+     * @param start: The start of the cell
+     * @param end:   The end of the cell
+     * @param out:   The buffer to append the text to
+     */
+    void unwrap(char[] chars, int start, int end, CJCharBuffer out) {
+        if (mode == CJQuoteMode.NONE || end - start < 2 || chars[start] != quote || chars[end - 1] != quote) {
+            out.append(chars, start, end - start);
+            return;
+        }
+        for (int i = start + 1; i < end - 1; i++) {
+            if (chars[i] == escape && i + 1 < end - 1) {
+                i++;
+            }
+            out.append(chars[i]);
+        }
+    }
+
+    private boolean needsQuotes(char[] chars, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            if (c == delimiter || c == lineSeparator || c == quote || c == escape || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wrap the cell with quotes, escaping its quotes
+     * and escapes, growing the cell in place
+     */
+    private void wrap(CJCharBuffer out, int start) {
+        int end = out.length();
+        char[] chars = out.array();
+        int extra = 2;
+        for (int i = start; i < end; i++) {
+            if (isEscaped(chars[i])) {
+                extra++;
+            }
+        }
+
+        out.ensureCapacity(extra);
+        chars = out.array();
+        int w = end + extra;
+        chars[--w] = quote;
+        for (int i = end - 1; i >= start; i--) {
+            char c = chars[i];
+            chars[--w] = c;
+            if (isEscaped(c)) {
+                chars[--w] = escape;
+            }
+        }
+        chars[--w] = quote;
+        out.setLength(end + extra);
+    }
+
+    private boolean isEscaped(char c) {
+        return c == quote || c == escape;
+    }
+}
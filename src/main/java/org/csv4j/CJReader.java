@@ -0,0 +1,638 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A CSV reader/parser class
+ *
+ * CJReader reads the csv written by `CJWriter` back to beans,
+ * using the same columns of `CJStructure` and the same `CJName`,
+ * `CJIgnore` and `CJMap` annotations. The header columns that are not
+ * fields are read back to the dynamic map of the model.
+ *
+ * The rows are read lazily through a buffered tokenizer. The cells are
+ * ranges of the buffer, they are only copied to Strings when the field
+ * needs a String
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJReader<T> implements Iterator<T>, Closeable {
+
+    /**
+     * The setters of each model class, null for the fields that can't be set,
+     * held by the class itself so they don't keep its class loader alive
+     */
+    private static final ClassValue<MethodHandle[]> SETTERS = new ClassValue<MethodHandle[]>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            return setters(type, CJStructure.plan(type));
+        }
+    };
+
+    private Class clazz;
+    private Reader reader;
+    private String delimiter = ",";
+    private String lineSeparator = "\n";
+    private String nullValue = "null";
+    private String multiValuesSeparator = ";";
+    private char quoteChar = '"';
+    private char escapeChar = '"';
+    private Boolean includeHeader = true;
+    private int bufferSize = CJWriteIterator.DEFAULT_BUFFER_SIZE;
+
+    // Tokenizer state
+    private char[] chars;
+    private int position;
+    private int limit;
+    private Boolean eof = false;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private int cells;
+
+    // Binding state
+    private List<CJColumn> cjColumns;
+    private MethodHandle[] setters;
+    private Supplier<Object> constructor;
+    private Binding[] bindings;
+    private Supplier<Object>[] mapFactories;
+    private Object[] maps;
+    private boolean[] mapsValues;
+    private List<String> header;
+    private T next;
+
+    /**
+     * Args Constructor
+     *
+     * @param clazz:  The class model
+     * @param reader: The reader of the csv
+     */
+    public CJReader(Class clazz, Reader reader) {
+        if (reader == null) {
+            throw new CJException(CJExceptionMessages.READER_NOT_SET);
+        }
+        this.clazz = clazz;
+        this.reader = reader;
+    }
+
+    /**
+     * Args Constructor, the bytes are decoded as UTF-8
+     *
+     * @param clazz:   The class model
+     * @param channel: The byte channel of the csv
+     */
+    public CJReader(Class clazz, ReadableByteChannel channel) {
+        this(clazz, channel == null ? null : Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+    }
+
+    /**
+     * The columns' delimiter -> default ","
+     */
+    public CJReader<T> delimiter(String delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * The lines' separator -> default "\n"
+     */
+    public CJReader<T> lineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+        return this;
+    }
+
+    /**
+     * The cells read as null values -> default "null"
+     */
+    public CJReader<T> nullValue(String nullValue) {
+        this.nullValue = nullValue;
+        return this;
+    }
+
+    /**
+     * The separator of the items in collections, arrays, and maps -> default ";"
+     */
+    public CJReader<T> multiValuesSeparator(String multiValuesSeparator) {
+        this.multiValuesSeparator = multiValuesSeparator;
+        return this;
+    }
+
+    /**
+     * The char wrapping the quoted cells -> default '"'
+     */
+    public CJReader<T> quoteChar(char quoteChar) {
+        this.quoteChar = quoteChar;
+        return this;
+    }
+
+    /**
+     * The char escaping the quotes in the quoted cells -> default '"', doubled quotes
+     */
+    public CJReader<T> escapeChar(char escapeChar) {
+        this.escapeChar = escapeChar;
+        return this;
+    }
+
+    /**
+     * The csv starts with a header -> default true
+     *
+     * Without a header the columns are read in the structure order,
+     * which is only possible for models without dynamic maps
+     */
+    public CJReader<T> includeHeader(Boolean includeHeader) {
+        this.includeHeader = includeHeader;
+        return this;
+    }
+
+    /**
+     * The size of the read buffer in chars -> default 8192
+     */
+    public CJReader<T> bufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Get the header of the csv, null when reading without a header
+     */
+    public List<String> header() {
+        init();
+        return header;
+    }
+
+    /**
+     * Check if the csv has next rows
+     *
+     * @return boolean: True if there are still rows
+     */
+    @Override
+    public boolean hasNext() {
+        init();
+        if (next == null) {
+            next = readBean();
+        }
+        return next != null;
+    }
+
+    /**
+     * Read the next bean
+     *
+     * @return bean: The bean of the next row
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new CJException(CJExceptionMessages.NO_SUCH_ELT_EXISTS);
+        }
+        T bean = next;
+        next = null;
+        return bean;
+    }
+
+    /**
+     * Read the remaining rows
+     *
+     * @return beans: The beans of the remaining rows
+     */
+    public List<T> readAll() {
+        List<T> beans = new ArrayList<>();
+        forEachRemaining(beans::add);
+        return beans;
+    }
+
+    /**
+     * Get a lazy stream of the remaining rows
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new CJException(e);
+                    }
+                });
+    }
+
+    /**
+     * Close the reader
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Bind the csv columns to the model fields,
+     * done once before reading the first row
+     */
+    @SuppressWarnings("unchecked")
+    private void init() {
+        if (cjColumns != null) {
+            return;
+        }
+
+        chars = new char[Math.max(bufferSize, lineSeparator.length() + 1)];
+        cjColumns = CJStructure.plan(clazz);
+        setters = SETTERS.get(clazz);
+        constructor = constructor(clazz);
+        mapFactories = new Supplier[cjColumns.size()];
+        maps = new Object[cjColumns.size()];
+        mapsValues = new boolean[cjColumns.size()];
+
+        if (includeHeader) {
+            header = readRow() ? cellsStrings() : Collections.emptyList();
+            bindings = bind(header);
+        } else {
+            bindings = bindPositional();
+        }
+    }
+
+    /**
+     * Bind the header names to the columns. The names are matched with the
+     * plain columns, then the `CJMap.keys()`, the rest go to the first
+     * dynamic map. The overflow columns of the maps are not read
+     */
+    private Binding[] bind(List<String> names) {
+        Binding[] bound = new Binding[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            bound[i] = bindPlain(name);
+            for (int c = 0; bound[i] == null && c < cjColumns.size(); c++) {
+                CJColumn cjColumn = cjColumns.get(c);
+                if (cjColumn.isCJMap() && Arrays.asList(cjColumn.getCjMapKeys()).contains(name)) {
+                    bound[i] = bindMapKey(c, name);
+                }
+            }
+            if (bound[i] == null && isOverflow(name)) {
+                continue;
+            }
+            for (int c = 0; bound[i] == null && c < cjColumns.size(); c++) {
+                CJColumn cjColumn = cjColumns.get(c);
+                if (cjColumn.isCJMap() && !cjColumn.isCJStaticMap()) {
+                    bound[i] = bindMapKey(c, name);
+                }
+            }
+        }
+        return bound;
+    }
+
+    private boolean isOverflow(String name) {
+        for (CJColumn cjColumn : cjColumns) {
+            if (cjColumn.hasOverflow() && cjColumn.getKeyBounds().getOverflow().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bind the cells in the structure order
+     */
+    private Binding[] bindPositional() {
+        List<Binding> bound = new ArrayList<>();
+        for (int c = 0; c < cjColumns.size(); c++) {
+            CJColumn cjColumn = cjColumns.get(c);
+            if (!cjColumn.isCJMap()) {
+                bound.add(bindPlain(cjColumn.getCjName()));
+            } else if (cjColumn.isCJStaticMap()) {
+                for (String key : cjColumn.getCjMapKeys()) {
+                    bound.add(bindMapKey(c, key));
+                }
+                if (cjColumn.hasOverflow()) {
+                    bound.add(null);
+                }
+            } else {
+                throw new CJException(CJExceptionMessages.HEADER_REQUIRED);
+            }
+        }
+        return bound.toArray(new Binding[0]);
+    }
+
+    private Binding bindPlain(String name) {
+        for (int c = 0; c < cjColumns.size(); c++) {
+            CJColumn cjColumn = cjColumns.get(c);
+            if (!cjColumn.isCJMap() && cjColumn.getCjName().equals(name) && setters[c] != null) {
+                return new Binding(c, null, CJParsers.parser(fieldType(c), multiValuesSeparator));
+            }
+        }
+        return null;
+    }
+
+    private Binding bindMapKey(int column, String name) {
+        if (setters[column] == null) {
+            return null;
+        }
+        Type mapType = fieldType(column);
+        mapFactories[column] = CJParsers.factory(CJParsers.rawType(mapType));
+        Object key = CJParsers.parser(CJParsers.typeArgument(mapType, 0), multiValuesSeparator)
+                .parse(name.toCharArray(), 0, name.length());
+        return new Binding(column, key,
+                CJParsers.parser(CJParsers.typeArgument(mapType, 1), multiValuesSeparator));
+    }
+
+    /**
+     * Read the next row and bind it to a new bean
+     *
+     * @return bean: The bean, null at the end of the csv
+     */
+    @SuppressWarnings("unchecked")
+    private T readBean() {
+        if (!readRow()) {
+            return null;
+        }
+
+        Object bean = constructor.get();
+        Arrays.fill(maps, null);
+        Arrays.fill(mapsValues, false);
+
+        for (int i = 0; i < cells && i < bindings.length; i++) {
+            Binding binding = bindings[i];
+            if (binding == null) {
+                continue;
+            }
+            int start = starts[i];
+            int end = ends[i];
+            // Quoted cells are never null
+            boolean isNull = !quoted[i] && CJParsers.matches(chars, start, end, nullValue);
+
+            if (binding.key == null) {
+                if (!isNull) {
+                    set(binding.column, bean, binding.parser.parse(chars, start, end));
+                }
+                continue;
+            }
+
+            if (maps[binding.column] == null) {
+                maps[binding.column] = mapFactories[binding.column].get();
+            }
+            if (!isNull) {
+                mapsValues[binding.column] = true;
+            }
+            // A key missing from the map is written as "null"
+            if (!isNull && (quoted[i] || !CJParsers.matches(chars, start, end, "null"))) {
+                ((Map) maps[binding.column]).put(binding.key, binding.parser.parse(chars, start, end));
+            }
+        }
+
+        for (int c = 0; c < maps.length; c++) {
+            // A null map is written as nullValue in all its cells
+            if (maps[c] != null && (mapsValues[c] || "null".equals(nullValue))) {
+                set(c, bean, maps[c]);
+            }
+        }
+        return (T) bean;
+    }
+
+    private void set(int column, Object bean, Object value) {
+        try {
+            setters[column].invokeExact(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new CJException(new Exception(t));
+        }
+    }
+
+    private Type fieldType(int column) {
+        return fields(clazz).get(column).getGenericType();
+    }
+
+    /**
+     * Read the next row to the cells ranges
+     *
+     * @return boolean: False at the end of the csv
+     */
+    private boolean readRow() {
+        try {
+            while (true) {
+                int end = tokenize(position, limit, eof);
+                if (end < 0) {
+                    fill();
+                    continue;
+                }
+                if (end == position && eof && position == limit) {
+                    return false;
+                }
+                int rowStart = position;
+                position = Math.min(end + lineSeparator.length(), limit);
+                if (end == rowStart && (bindings == null || bindings.length != 1)) {
+                    // Skip empty lines, unless it is the empty cell of a single column row
+                    continue;
+                }
+                unquote();
+                return true;
+            }
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+    }
+
+    /**
+     * Move the unread chars to the buffer start and read more,
+     * the buffer grows when a single row doesn't fit
+     */
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (remaining == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        } else if (position > 0) {
+            System.arraycopy(chars, position, chars, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = reader.read(chars, limit, chars.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    /**
+     * Split the row starting at `from` to cells. Delimiters and line
+     * separators inside quoted cells are part of the cells
+     *
+     * @param from: The row start
+     * @param to:   The end of the buffered chars
+     * @param last: Whether the buffered chars are the last ones
+     * @return end: The row end, -1 when more chars are needed
+     */
+    private int tokenize(int from, int to, boolean last) {
+        cells = 0;
+        int cellStart = from;
+        boolean inQuotes = false;
+        int i = from;
+        while (i < to) {
+            char c = chars[i];
+            if (inQuotes) {
+                if (c == escapeChar || c == quoteChar) {
+                    if (i + 1 == to && !last) {
+                        return -1;
+                    }
+                    if (c == escapeChar && i + 1 < to
+                            && (escapeChar != quoteChar || chars[i + 1] == quoteChar)) {
+                        i += 2;
+                        continue;
+                    }
+                    if (c == quoteChar) {
+                        inQuotes = false;
+                    }
+                }
+                i++;
+            } else if (c == quoteChar && i == cellStart) {
+                inQuotes = true;
+                i++;
+            } else if (c == delimiter.charAt(0) && i + delimiter.length() <= to
+                    && CJParsers.matches(chars, i, i + delimiter.length(), delimiter)) {
+                addCell(cellStart, i);
+                i += delimiter.length();
+                cellStart = i;
+            } else if (c == lineSeparator.charAt(0) && i + lineSeparator.length() <= to
+                    && CJParsers.matches(chars, i, i + lineSeparator.length(), lineSeparator)) {
+                addCell(cellStart, i);
+                return i;
+            } else {
+                i++;
+            }
+        }
+        if (!last) {
+            return -1;
+        }
+        addCell(cellStart, to);
+        return to;
+    }
+
+    /**
+     * Remove the quotes and the escapes of the quoted cells in place
+     */
+    private void unquote() {
+        for (int i = 0; i < cells; i++) {
+            if (!quoted[i]) {
+                continue;
+            }
+            int end = ends[i];
+            int w = starts[i];
+            int r = starts[i] + 1;
+            boolean inQuotes = true;
+            while (r < end) {
+                char c = chars[r];
+                if (inQuotes && c == escapeChar && r + 1 < end
+                        && (escapeChar != quoteChar || chars[r + 1] == quoteChar)) {
+                    chars[w++] = chars[r + 1];
+                    r += 2;
+                } else if (inQuotes && c == quoteChar) {
+                    inQuotes = false;
+                    r++;
+                } else {
+                    chars[w++] = c;
+                    r++;
+                }
+            }
+            ends[i] = w;
+        }
+    }
+
+    private void addCell(int start, int end) {
+        if (cells == starts.length) {
+            starts = Arrays.copyOf(starts, cells * 2);
+            ends = Arrays.copyOf(ends, cells * 2);
+            quoted = Arrays.copyOf(quoted, cells * 2);
+        }
+        starts[cells] = start;
+        ends[cells] = end;
+        quoted[cells] = end > start && chars[start] == quoteChar;
+        cells++;
+    }
+
+    private List<String> cellsStrings() {
+        List<String> strings = new ArrayList<>(cells);
+        for (int i = 0; i < cells; i++) {
+            strings.add(new String(chars, starts[i], ends[i] - starts[i]));
+        }
+        return strings;
+    }
+
+    /**
+     * Get the fields of the class in the structure order
+     */
+    private static List<Field> fields(Class clazz) {
+        return utils.appendClassFields(new ArrayList<>(), clazz).stream()
+                .filter(field -> !field.isAnnotationPresent(org.csv4j.annotation.CJIgnore.class))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Compile the setters of the class columns, once per class
+     */
+    private static MethodHandle[] setters(Class clazz, List<CJColumn> cjColumns) {
+        List<Field> fields = fields(clazz);
+        MethodHandle[] setters = new MethodHandle[cjColumns.size()];
+        for (int i = 0; i < setters.length && i < fields.size(); i++) {
+            Field field = fields.get(i);
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())
+                    || !field.getName().equals(cjColumns.get(i).getFieldName())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                setters[i] = MethodHandles.lookup().unreflectSetter(field)
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new CJException(e);
+            }
+        }
+        return setters;
+    }
+
+    private static Supplier<Object> constructor(Class clazz) {
+        try {
+            Constructor constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new CJException(e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            throw new CJException(CJExceptionMessages.NO_DEFAULT_CONSTRUCTOR);
+        }
+    }
+
+    /**
+     * A csv column bound to a field or to a map key of a field
+     */
+    private static class Binding {
+        private final int column;
+        private final Object key;
+        private final CJParser parser;
+
+        Binding(int column, Object key, CJParser parser) {
+            this.column = column;
+            this.key = key;
+            this.parser = parser;
+        }
+    }
+}
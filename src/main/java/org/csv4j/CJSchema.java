@@ -0,0 +1,170 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CJSchema declares the columns of the csv of `Object[]` or `Map` rows,
+ * instead of a model class.
+ *
+ * The columns are declared in the csv order. An `Object[]` row holds the
+ * value of each column at its position, a `Map` row holds it under the
+ * column key. A map column group holds a `Map` whose keys are columns,
+ * with the semantics of `@CJMap`. The rows are written exactly like the
+ * beans of a model class with the same fields and annotations, without
+ * any reflection
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJSchema {
+
+    private static final MethodHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup()
+                    .findStatic(CJSchema.class, "value",
+                            MethodType.methodType(Object.class, int.class, Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final List<CJColumn> columns;
+
+    private CJSchema(List<CJColumn> columns) {
+        this.columns = Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Get a builder of the schema columns
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the compiled columns of the schema, the plan of `CJStructure`
+     */
+    List<CJColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Read the value of a column from a row
+     *
+     * @param index: The position of the column in `Object[]` rows
+     * @param key:   The key of the column in `Map` rows
+     * @param row:   The row
+     * @return value: The column value
+     */
+    private static Object value(int index, Object key, Object row) {
+        if (row instanceof Object[]) {
+            return ((Object[]) row)[index];
+        }
+        if (row instanceof Map) {
+            return ((Map) row).get(key);
+        }
+        throw new CJException(CJExceptionMessages.SCHEMA_ROW_TYPE);
+    }
+
+    /**
+     * CJSchema builder, the columns are declared in the csv order
+     */
+    public static class Builder {
+
+        private final List<CJColumn> columns = new ArrayList<>();
+
+        /**
+         * A column, its key is its header name
+         *
+         * @param key: The key of the column in `Map` rows and its header name
+         */
+        public Builder column(String key) {
+            return column(key, key);
+        }
+
+        /**
+         * A column with a header name, like `@CJName`
+         *
+         * @param key:  The key of the column in `Map` rows
+         * @param name: The header name of the column
+         */
+        public Builder column(String key, String name) {
+            columns.add(new CJColumn(key, name, false, false, new String[0], getter(key)));
+            return this;
+        }
+
+        /**
+         * A column with a header name and a formatter, like `@CJName` and `@CJFormat`
+         *
+         * @param key:       The key of the column in `Map` rows
+         * @param name:      The header name of the column
+         * @param formatter: The formatter of the column values
+         */
+        @SuppressWarnings("unchecked")
+        public Builder column(String key, String name, CJFormatter<?> formatter) {
+            columns.add(new CJColumn(key, name, false, false, new String[0], getter(key),
+                    Object.class, (CJFormatter<Object>) formatter, 0, CJKeyBounds.NONE));
+            return this;
+        }
+
+        /**
+         * A dynamic map column group, its keys are found in the rows, like `@CJMap`
+         *
+         * @param key: The key of the map in `Map` rows
+         */
+        public Builder map(String key) {
+            return map(key, true);
+        }
+
+        /**
+         * A map column group, like `@CJMap(keys, includeNull)`
+         *
+         * @param key:         The key of the map in `Map` rows
+         * @param includeNull: Include the keys with no values in the rows
+         * @param keys:        The possible keys of the map, in the columns order.
+         *                     When empty the keys are found in the rows
+         */
+        public Builder map(String key, boolean includeNull, String... keys) {
+            columns.add(new CJColumn(key, key, true, utils.nonEmptyStrings(keys) && includeNull,
+                    keys.clone(), getter(key)));
+            return this;
+        }
+
+        /**
+         * A dynamic map column group with a bounded discovery of its keys, like
+         * `@CJMap(scanLimit, sampleRate, maxKeys, overflow)`
+         *
+         * @param key:        The key of the map in `Map` rows
+         * @param scanLimit:  The number of the first rows scanned for the keys, 0 scans all the rows
+         * @param sampleRate: The fraction of the scanned rows sampled for the keys
+         * @param maxKeys:    The max number of the columns of the keys, 0 is unlimited
+         * @param overflow:   The header name of the column of the other keys, empty drops them
+         */
+        public Builder map(String key, int scanLimit, double sampleRate, int maxKeys, String overflow) {
+            columns.add(new CJColumn(key, key, true, false, new String[0], getter(key), Object.class, null, 0,
+                    new CJKeyBounds(scanLimit, sampleRate, maxKeys, overflow)));
+            return this;
+        }
+
+        /**
+         * Build the schema
+         */
+        public CJSchema build() {
+            return new CJSchema(new ArrayList<>(columns));
+        }
+
+        private MethodHandle getter(String key) {
+            return MethodHandles.insertArguments(VALUE, 0, columns.size(), key);
+        }
+    }
+}
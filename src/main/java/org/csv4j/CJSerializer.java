@@ -0,0 +1,127 @@
+package org.csv4j;
+
+/**
+ * A serializer of a model class generated at compile time
+ * by the csv4j-processor annotation processor.
+ *
+ * It describes the columns of the model the same way `CJStructure`
+ * reflects them, and reads the field values with plain generated code.
+ * The generated class is named after the model, `Model_CJSerializer`
+ * in the model package, and is registered in
+ * `META-INF/services/org.csv4j.CJSerializer`, `CJWriter` loads it
+ * with the `ServiceLoader` when present
+ *
+ * @author Omar Muhtaseb
+ */
+public interface CJSerializer<T> {
+
+    /**
+     * The suffix of the generated serializer class name
+     */
+    String SUFFIX = "_CJSerializer";
+
+    /**
+     * The model class of the serializer
+     */
+    Class<?> modelClass();
+
+    /**
+     * The number of the model columns, ignored fields excluded
+     */
+    int columns();
+
+    /**
+     * The field name of the column
+     *
+     * @param column: The column index
+     */
+    String fieldName(int column);
+
+    /**
+     * The header name of the column, `CJName` or the field name
+     *
+     * @param column: The column index
+     */
+    String columnName(int column);
+
+    /**
+     * Whether the column is a map annotated with `CJMap`
+     *
+     * @param column: The column index
+     */
+    boolean isCJMap(int column);
+
+    /**
+     * The `CJMap.keys()` of the column, empty for other columns
+     *
+     * @param column: The column index
+     */
+    String[] mapKeys(int column);
+
+    /**
+     * The `CJMap.includeNull()` of the column, true for other columns
+     *
+     * @param column: The column index
+     */
+    boolean includeNull(int column);
+
+    /**
+     * The declared type of the field of the column, the erasure of a generic type
+     *
+     * @param column: The column index
+     */
+    Class<?> type(int column);
+
+    /**
+     * A new instance of the `CJFormat` formatter of the column
+     *
+     * @param column: The column index
+     * @return formatter: The formatter, null when the field has no `CJFormat`
+     */
+    CJFormatter<?> formatter(int column);
+
+    /**
+     * The `CJCache.value()` of the column, the number of the constants of
+     * an enum field without `CJCache`, 0 for other columns
+     *
+     * @param column: The column index
+     */
+    int cacheSize(int column);
+
+    /**
+     * The `CJMap.scanLimit()` of the column, 0 for other columns
+     *
+     * @param column: The column index
+     */
+    int scanLimit(int column);
+
+    /**
+     * The `CJMap.sampleRate()` of the column, 1 for other columns
+     *
+     * @param column: The column index
+     */
+    double sampleRate(int column);
+
+    /**
+     * The `CJMap.maxKeys()` of the column, 0 for other columns
+     *
+     * @param column: The column index
+     */
+    int maxKeys(int column);
+
+    /**
+     * The `CJMap.overflow()` of the column, empty for other columns
+     *
+     * @param column: The column index
+     */
+    String overflow(int column);
+
+    /**
+     * Read the value of the column from the bean
+     *
+     * @param bean:   The object to read the value from
+     * @param column: The column index
+     * @return value: The field value
+     */
+    Object value(T bean, int column);
+}
@@ -0,0 +1,347 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * CJSpill stores the rendered rows of a single pass export
+ * in a temporary file while the dynamic maps keys are collected.
+ * Once the source is consumed the rows are replayed and aligned
+ * to the final columns.
+ *
+ * Each row is encoded as the rendered cells of the static columns,
+ * and for each dynamic map the index of the key and the rendered
+ * value of each non null entry. Every key is indexed, the keys of
+ * the columns are the ones found within the bounds of the map
+ *
+ * @author Omar Muhtaseb
+ */
+class CJSpill<T> implements Closeable {
+
+    private static final int NULL_MAP = 0;
+
+    private final List<CJColumn> cjColumns;
+    private final BiFunction<CJColumn, Object, String> renderer;
+    private final BiFunction<CJColumn, Object, String> mapRenderer;
+    private final BiFunction<List<Object>, List<String>, String> overflowRenderer;
+    private final String nullValue;
+    private final Path path;
+    private final int bufferSize;
+    private final Boolean deleteOnClose;
+
+    // The keys of each dynamic map with their spill index, null for other columns
+    private final List<LinkedHashMap<Object, Integer>> keysIndexes = new ArrayList<>();
+    // The discovery of the keys of each dynamic map, null for other columns
+    private final List<CJKeyBounds.Scan> scans = new ArrayList<>();
+    private final List<Object> overflowKeys = new ArrayList<>();
+    private final List<String> overflowCells = new ArrayList<>();
+
+    private DataOutputStream out;
+    private DataInputStream in;
+    private Integer rows = 0;
+    private Integer replayedRows = 0;
+    private Integer width;
+    private int[][] positions;
+    private Object[][] indexesKeys;
+    private byte[] bytes = new byte[64];
+
+    /**
+     * Args Constructor
+     *
+     * @param cjColumns:     The columns of the structure
+     * @param renderer:      Renders a non map value as a cell
+     * @param mapRenderer:   Renders a map value as a cell
+     * @param overflowRenderer: Renders the overflow cell of the keys and the rendered values of a map
+     * @param nullValue:     Supersede the null maps with this
+     * @param directory:     The spill directory, the system temp directory when null
+     * @param bufferSize:    The size of the file buffers in bytes
+     * @param deleteOnClose: Delete the spill file once closed
+     */
+    CJSpill(List<CJColumn> cjColumns, BiFunction<CJColumn, Object, String> renderer,
+            BiFunction<CJColumn, Object, String> mapRenderer,
+            BiFunction<List<Object>, List<String>, String> overflowRenderer,
+            String nullValue, Path directory, int bufferSize, Boolean deleteOnClose) {
+        this.cjColumns = cjColumns;
+        this.renderer = renderer;
+        this.mapRenderer = mapRenderer;
+        this.overflowRenderer = overflowRenderer;
+        this.nullValue = nullValue;
+        this.bufferSize = bufferSize;
+        this.deleteOnClose = deleteOnClose;
+
+        cjColumns.forEach(cjColumn -> {
+            boolean dynamic = cjColumn.isCJMap() && !cjColumn.isCJStaticMap();
+            keysIndexes.add(dynamic ? new LinkedHashMap<>() : null);
+            scans.add(dynamic ? cjColumn.getKeyBounds().scan() : null);
+        });
+
+        try {
+            Path dir = directory == null ? Paths.get(System.getProperty("java.io.tmpdir")) : directory;
+            this.path = Files.createTempFile(dir, "csv4j-", ".spill");
+            this.out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(path), bufferSize));
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+    }
+
+    /**
+     * Get the number of spilled rows
+     */
+    Integer getRows() {
+        return rows;
+    }
+
+    /**
+     * Render the bean and append it to the spill file
+     *
+     * @param bean: The object to get the data from
+     */
+    void write(T bean) {
+        try {
+            for (int i = 0; i < cjColumns.size(); i++) {
+                CJColumn cjColumn = cjColumns.get(i);
+                Object value = cjColumn.getValue(bean);
+
+                if (!cjColumn.isCJMap()) {
+                    writeString(renderer.apply(cjColumn, value));
+                } else if (cjColumn.isCJStaticMap()) {
+                    for (Object key : cjColumn.getMapKeys()) {
+                        writeString(value == null ? nullValue : mapRenderer.apply(cjColumn, ((Map) value).get(key)));
+                    }
+                    if (cjColumn.hasOverflow()) {
+                        writeString(value == null ? nullValue : staticOverflowCell(cjColumn, (Map<?, ?>) value));
+                    }
+                } else if (value == null) {
+                    scans.get(i).offer(null);
+                    writeVarInt(NULL_MAP);
+                } else {
+                    LinkedHashMap<Object, Integer> keysIndex = keysIndexes.get(i);
+                    Map<?, ?> map = (Map) value;
+                    scans.get(i).offer(map);
+                    int entries = 0;
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        if (!keysIndex.containsKey(entry.getKey())) {
+                            keysIndex.put(entry.getKey(), keysIndex.size());
+                        }
+                        if (entry.getValue() != null) {
+                            entries++;
+                        }
+                    }
+                    // The null values are replayed as the missing keys, rendered the same
+                    writeVarInt(entries + 1);
+                    for (Map.Entry<?, ?> entry : map.entrySet()) {
+                        if (entry.getValue() != null) {
+                            writeVarInt(keysIndex.get(entry.getKey()));
+                            writeString(mapRenderer.apply(cjColumn, entry.getValue()));
+                        }
+                    }
+                }
+            }
+            rows++;
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+    }
+
+    /**
+     * Render the overflow cell of a static map, its keys are final
+     */
+    private String staticOverflowCell(CJColumn cjColumn, Map<?, ?> map) {
+        overflowKeys.clear();
+        overflowCells.clear();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() != null && !cjColumn.getMapKeys().contains(entry.getKey())
+                    && !cjColumn.isDroppedKey(entry.getKey())) {
+                overflowKeys.add(entry.getKey());
+                overflowCells.add(mapRenderer.apply(cjColumn, entry.getValue()));
+            }
+        }
+        return overflowRenderer.apply(overflowKeys, overflowCells);
+    }
+
+    /**
+     * Finish writing the spill file
+     *
+     * @return mapsKeys: The keys found for each dynamic map field, within its bounds
+     */
+    Map<String, Set<Object>> finish() {
+        try {
+            out.close();
+            out = null;
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+
+        Map<String, Set<Object>> mapsKeys = new HashMap<>();
+        for (int i = 0; i < cjColumns.size(); i++) {
+            if (keysIndexes.get(i) != null) {
+                mapsKeys.put(cjColumns.get(i).getFieldName(), scans.get(i).getKeys());
+            }
+        }
+        return mapsKeys;
+    }
+
+    /**
+     * Start replaying the spilled rows aligned to the final keys
+     * of the columns
+     */
+    void replay() {
+        width = 0;
+        positions = new int[cjColumns.size()][];
+        indexesKeys = new Object[cjColumns.size()][];
+        for (int i = 0; i < cjColumns.size(); i++) {
+            CJColumn cjColumn = cjColumns.get(i);
+            if (!cjColumn.isCJMap()) {
+                width++;
+                continue;
+            }
+
+            LinkedHashMap<Object, Integer> keysIndex = keysIndexes.get(i);
+            if (keysIndex != null) {
+                // Position of each spilled key in the final keys, -1 when dropped
+                Map<Object, Integer> finalKeys = new HashMap<>();
+                cjColumn.getMapKeys().forEach(key -> finalKeys.put(key, finalKeys.size()));
+                int[] position = new int[keysIndex.size()];
+                keysIndex.forEach((key, index) -> position[index] = finalKeys.getOrDefault(key, -1));
+                positions[i] = position;
+                indexesKeys[i] = keysIndex.keySet().toArray();
+            }
+            width += cjColumn.getMapKeys().size() + (cjColumn.hasOverflow() ? 1 : 0);
+        }
+
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), bufferSize));
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+    }
+
+    /**
+     * Check if there are still rows to replay
+     */
+    Boolean hasNext() {
+        return replayedRows < rows;
+    }
+
+    /**
+     * Read the next spilled row
+     *
+     * @return cells: The cells of the row aligned to the final columns
+     */
+    String[] next() {
+        if (!hasNext()) {
+            throw new CJException(CJExceptionMessages.NO_SUCH_ELT_EXISTS);
+        }
+
+        String[] cells = new String[width];
+        int cell = 0;
+        try {
+            for (int i = 0; i < cjColumns.size(); i++) {
+                CJColumn cjColumn = cjColumns.get(i);
+
+                if (!cjColumn.isCJMap()) {
+                    cells[cell++] = readString();
+                    continue;
+                }
+
+                int size = cjColumn.getMapKeys().size();
+                if (cjColumn.isCJStaticMap()) {
+                    int length = size + (cjColumn.hasOverflow() ? 1 : 0);
+                    for (int k = 0; k < length; k++) {
+                        cells[cell++] = readString();
+                    }
+                    continue;
+                }
+
+                int entries = readVarInt();
+                String missing = entries == NULL_MAP ? nullValue : String.valueOf((Object) null);
+                Arrays.fill(cells, cell, cell + size, missing);
+                overflowKeys.clear();
+                overflowCells.clear();
+                for (int e = 1; e < entries; e++) {
+                    int index = readVarInt();
+                    int position = positions[i][index];
+                    String value = readString();
+                    if (position >= 0) {
+                        cells[cell + position] = value;
+                    } else if (cjColumn.hasOverflow() && !cjColumn.isDroppedKey(indexesKeys[i][index])) {
+                        overflowKeys.add(indexesKeys[i][index]);
+                        overflowCells.add(value);
+                    }
+                }
+                cell += size;
+                if (cjColumn.hasOverflow()) {
+                    cells[cell++] = entries == NULL_MAP ? nullValue : overflowRenderer.apply(overflowKeys, overflowCells);
+                }
+            }
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+        replayedRows++;
+        return cells;
+    }
+
+    /**
+     * Close the spill file and delete it when configured to
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        } finally {
+            if (deleteOnClose) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private String readString() throws IOException {
+        int length = readVarInt();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        in.readFully(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * CJSplitWriter writes the rows of a CJWriteIterator to part files,
+ * rolling to the next part at a number of rows or bytes.
+ *
+ * Every part starts with the header. When the rows are rendered on a pool
+ * and the parts are only capped by rows, the beans of each part are taken
+ * from the source in order and the parts are rendered and written
+ * concurrently. A bytes cap needs the size of each row before it is
+ * written, so the parts are rolled one after the other
+ *
+ * @author Omar Muhtaseb
+ */
+class CJSplitWriter<T> {
+
+    private final CJWriter<T> cjWriter;
+    private final CJWriteIterator<T> cjWriteIterator;
+    private final String pattern;
+    private final long maxRows;
+    private final long maxBytes;
+    private final String header;
+    private final String lineSeparator;
+    private final long lineSeparatorBytes;
+    private final int bufferSize;
+
+    /**
+     * Args Constructor
+     *
+     * @param cjWriter:        The writer opening the part files
+     * @param cjWriteIterator: The iterator of the rows
+     * @param pattern:         The `String.format` pattern of the part files, given the part index from 1
+     * @param maxRows:         The max number of the rows in a part, 0 is unlimited
+     * @param maxBytes:        The max number of the uncompressed bytes in a part, 0 is unlimited
+     * @param header:          The header of every part, empty for none
+     * @param lineSeparator:   The line separator between rows
+     * @param bufferSize:      The number of chars buffered before they are written
+     */
+    CJSplitWriter(CJWriter<T> cjWriter, CJWriteIterator<T> cjWriteIterator, String pattern, long maxRows,
+                  long maxBytes, String header, String lineSeparator, int bufferSize) {
+        this.cjWriter = cjWriter;
+        this.cjWriteIterator = cjWriteIterator;
+        this.pattern = pattern;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.header = header;
+        this.lineSeparator = lineSeparator;
+        this.lineSeparatorBytes = CJByteWriter.utf8Length(lineSeparator);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Write the remaining rows to the parts, an empty
+     * source is written as a single part of the header
+     *
+     * @return parts: The written parts in order
+     */
+    List<CJPart> write() throws IOException {
+        try {
+            ForkJoinPool pool = cjWriteIterator.getPool();
+            if (pool != null && maxRows > 0 && maxBytes <= 0) {
+                return writeParallel(pool);
+            }
+            return writeSequential();
+        } finally {
+            cjWriteIterator.close();
+        }
+    }
+
+    /**
+     * Render the rows one by one, rolling to the next part
+     * before the row that reaches a cap
+     */
+    private List<CJPart> writeSequential() throws IOException {
+        List<CJPart> parts = new ArrayList<>();
+        CJCharBuffer row = new CJCharBuffer(256);
+        OpenPart part = null;
+        try {
+            while (cjWriteIterator.hasNext()) {
+                row.clear();
+                cjWriteIterator.appendNextRow(row);
+                long rowBytes = CJByteWriter.utf8Length(row);
+
+                if (part == null || isFull(part, rowBytes)) {
+                    if (part != null) {
+                        parts.add(part.close());
+                    }
+                    part = new OpenPart(path(parts.size() + 1));
+                }
+                if (part.rows > 0) {
+                    part.writer.write(lineSeparator);
+                    part.bytes += lineSeparatorBytes;
+                }
+                row.appendTo(part.writer);
+                part.rows++;
+                part.bytes += rowBytes;
+            }
+            if (part == null) {
+                part = new OpenPart(path(1));
+            }
+            parts.add(part.close());
+            part = null;
+        } finally {
+            if (part != null) {
+                part.abort();
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Take the beans of each part in order and render the
+     * parts on the pool, at most twice its parallelism at once
+     */
+    private List<CJPart> writeParallel(ForkJoinPool pool) {
+        List<CJPart> parts = new ArrayList<>();
+        Deque<ForkJoinTask<CJPart>> pending = new ArrayDeque<>();
+        int maxPending = pool.getParallelism() * 2;
+        int index = 0;
+        try {
+            while (index == 0 || cjWriteIterator.hasNext()) {
+                List<T> partBeans = new ArrayList<>((int) Math.min(maxRows, 1024));
+                while (partBeans.size() < maxRows && cjWriteIterator.hasNext()) {
+                    partBeans.add(cjWriteIterator.nextBean());
+                }
+                Path path = path(++index);
+                pending.add(pool.submit(() -> writePart(path, partBeans)));
+
+                if (pending.size() >= maxPending) {
+                    parts.add(pending.poll().join());
+                }
+            }
+            while (!pending.isEmpty()) {
+                parts.add(pending.poll().join());
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(false));
+        }
+        return parts;
+    }
+
+    /**
+     * Render the beans of a part to its file
+     *
+     * @param path:      The part file
+     * @param partBeans: The beans of the part
+     * @return part: The written part
+     */
+    private CJPart writePart(Path path, List<T> partBeans) throws IOException {
+        OpenPart part = new OpenPart(path);
+        try {
+            CJCharBuffer buffer = new CJCharBuffer(bufferSize);
+            for (T bean : partBeans) {
+                if (part.rows > 0) {
+                    buffer.append(lineSeparator);
+                }
+                cjWriteIterator.appendRow(bean, buffer);
+                part.rows++;
+                if (buffer.length() >= bufferSize) {
+                    buffer.appendTo(part.writer);
+                    buffer.clear();
+                }
+            }
+            buffer.appendTo(part.writer);
+            return part.close();
+        } catch (IOException | RuntimeException e) {
+            part.abort();
+            throw e;
+        }
+    }
+
+    private boolean isFull(OpenPart part, long rowBytes) {
+        if (maxRows > 0 && part.rows >= maxRows) {
+            return true;
+        }
+        return maxBytes > 0 && part.rows > 0 && part.bytes + lineSeparatorBytes + rowBytes > maxBytes;
+    }
+
+    private Path path(int index) {
+        return Paths.get(String.format(pattern, index));
+    }
+
+    /**
+     * A part file being written, it starts with the header
+     */
+    private class OpenPart {
+        private final Path path;
+        private final FileChannel channel;
+        private final CJByteWriter writer;
+        private long rows;
+        private long bytes;
+
+        OpenPart(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.writer = cjWriter.byteWriter(channel);
+            try {
+                writer.write(header);
+            } catch (IOException | RuntimeException e) {
+                abort();
+                throw e;
+            }
+            bytes = CJByteWriter.utf8Length(header);
+        }
+
+        CJPart close() throws IOException {
+            try {
+                writer.close();
+            } finally {
+                channel.close();
+            }
+            return new CJPart(path.toString(), rows, Files.size(path));
+        }
+
+        void abort() {
+            try {
+                close();
+            } catch (IOException | RuntimeException e) {
+                // The original failure is reported
+            }
+        }
+    }
+}
@@ -6,7 +6,11 @@ import org.csv4j.annotation.CJName;
 import org.csv4j.exception.CJException;
 import org.csv4j.exception.CJExceptionMessages;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,19 +22,83 @@ import java.util.stream.Collectors;
  */
 public class CJStructure<T> {
 
-    private Collection<T> beans;
-    private Class clazz;
+    /**
+     * The compiled columns of each model class, built once per class and
+     * held by the class itself, so they don't keep its class loader alive
+     */
+    private static final ClassValue<List<CJColumn>> PLANS = new ClassValue<List<CJColumn>>() {
+        @Override
+        protected List<CJColumn> computeValue(Class<?> type) {
+            CJSerializer serializer = utils.generatedSerializer(type);
+            if (serializer != null) {
+                return Collections.unmodifiableList(genCJColumns(serializer));
+            }
+
+            List<Field> fields = utils.appendClassFields(new ArrayList<>(), type);
+
+            fields = filterIgnoredFields(fields);
+
+            return Collections.unmodifiableList(genCJColumns(fields));
+        }
+    };
+
+    private static final MethodHandle SERIALIZER_VALUE;
+
+    static {
+        try {
+            SERIALIZER_VALUE = MethodHandles.publicLookup()
+                    .findVirtual(CJSerializer.class, "value",
+                            MethodType.methodType(Object.class, Object.class, int.class))
+                    .asType(MethodType.methodType(Object.class, CJSerializer.class, Object.class, int.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Iterable<T> beans;
+    private List<CJColumn> plan;
+    private CJProjection projection;
     private List<CJColumn> cjColumns;
+    private long buildNanos;
+    private long mapScanNanos;
 
     /**
      * Args Constructor
      *
-     * @param beans: The data collection
+     * @param beans: The data, it is only iterated when
+     *               the class has dynamic maps. When null the
+     *               dynamic maps keys are set later
      * @param clazz: The model class of the data
      */
-    CJStructure(Collection<T> beans, Class clazz) {
+    CJStructure(Iterable<T> beans, Class clazz) {
+        this(beans, plan(clazz));
+    }
+
+    /**
+     * Args Constructor
+     *
+     * @param beans: The data, it is only iterated when
+     *               the plan has dynamic maps. When null the
+     *               dynamic maps keys are set later
+     * @param plan:  The compiled columns, of a model class or a `CJSchema`
+     */
+    CJStructure(Iterable<T> beans, List<CJColumn> plan) {
+        this(beans, plan, null);
+    }
+
+    /**
+     * Args Constructor
+     *
+     * @param beans:      The data, it is only iterated when
+     *                    the plan has dynamic maps. When null the
+     *                    dynamic maps keys are set later
+     * @param plan:       The compiled columns, pruned to the selected ones
+     * @param projection: The selected columns restricting the maps keys, null for all
+     */
+    CJStructure(Iterable<T> beans, List<CJColumn> plan, CJProjection projection) {
         this.beans = beans;
-        this.clazz = clazz;
+        this.plan = plan;
+        this.projection = projection;
         build();
     }
 
@@ -56,21 +124,62 @@ public class CJStructure<T> {
     }
 
     /**
-     * Build the structure of the CSV
+     * Get the time taken to build the structure
      */
-    private void build() {
+    long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Get the time taken to scan the beans for the dynamic maps keys
+     */
+    long getMapScanNanos() {
+        return mapScanNanos;
+    }
 
-        List<Field> fields = utils.appendClassFields(new ArrayList<>(), clazz);
+    /**
+     * Get the number of the columns of the dynamic maps keys
+     */
+    int getDynamicColumnsLength() {
+        return cjColumns.stream()
+                .filter(CJColumn::isCJMap)
+                .filter(cjColumn -> !cjColumn.isCJStaticMap())
+                .mapToInt(cjColumn -> cjColumn.getMapKeys().size())
+                .sum();
+    }
 
-        fields = filterIgnoredFields(fields);
+    /**
+     * Build the structure of the CSV
+     */
+    private void build() {
+        long start = System.nanoTime();
 
-        cjColumns = genCJColumns(fields);
+        cjColumns = plan.stream()
+                .map(CJColumn::copy)
+                .collect(Collectors.toList());
 
         genCJMapsKeys();
+        projectMapsKeys();
 
-        if (beansScanNeeded()) {
-            cjNonStaticMapsKeys();
+        if (beans != null && beansScanNeeded()) {
+            long scanStart = System.nanoTime();
+            cjNonStaticMapsKeys(getBeansMapsKeys());
+            mapScanNanos = System.nanoTime() - scanStart;
         }
+        buildNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Get the compiled columns of the class
+     * The columns are taken from the generated serializer of the class
+     * when present, otherwise the fields are reflected and their getters
+     * are compiled. Either way only the first time the class is used
+     *
+     * @param clazz: The model class
+     * @return list: The compiled columns of the class
+     */
+    static List<CJColumn> plan(Class clazz) {
+        return PLANS.get(clazz);
     }
 
     /**
@@ -79,7 +188,7 @@ public class CJStructure<T> {
      * @param fields : The list of model's fields
      * @return fields: The list of fields to use in csv writing
      */
-    private List<Field> filterIgnoredFields(List<Field> fields) {
+    private static List<Field> filterIgnoredFields(List<Field> fields) {
         return fields.stream()
                 .filter(field -> !field.isAnnotationPresent(CJIgnore.class))
                 .collect(Collectors.toList());
@@ -91,26 +200,85 @@ public class CJStructure<T> {
      * @param fields: The List of model fields
      * @return list: A list of CJColumn
      */
-    private List<CJColumn> genCJColumns(List<Field> fields) {
+    private static List<CJColumn> genCJColumns(List<Field> fields) {
         return fields.stream()
                 .map(field ->
                         new CJColumn(
                                 field.getName(),
                                 genColumnName(field),
                                 utils.isCJMap(field),
-                                utils.isCJStaticMap(field)
+                                utils.isCJStaticMap(field),
+                                utils.isCJMap(field) ? field.getAnnotation(CJMap.class).keys() : new String[0],
+                                genGetter(field),
+                                utils.isCJMap(field) ? Object.class : field.getType(),
+                                utils.fieldFormatter(field),
+                                utils.cacheSize(field),
+                                utils.keyBounds(field)
                         )
                 )
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Generate a list of CJColumn of the generated serializer
+     * The fields and their annotations are described by the serializer,
+     * they are not reflected
+     *
+     * @param serializer: The generated serializer of the model
+     * @return list: A list of CJColumn
+     */
+    @SuppressWarnings("unchecked")
+    private static List<CJColumn> genCJColumns(CJSerializer serializer) {
+        MethodHandle value = SERIALIZER_VALUE.bindTo(serializer);
+        List<CJColumn> cjColumns = new ArrayList<>();
+        for (int i = 0; i < serializer.columns(); i++) {
+            String[] keys = serializer.isCJMap(i) ? serializer.mapKeys(i) : new String[0];
+            cjColumns.add(new CJColumn(
+                    serializer.fieldName(i),
+                    serializer.columnName(i),
+                    serializer.isCJMap(i),
+                    serializer.isCJMap(i) && utils.nonEmptyStrings(keys) && serializer.includeNull(i),
+                    keys,
+                    MethodHandles.insertArguments(value, 1, i),
+                    serializer.isCJMap(i) ? Object.class : serializer.type(i),
+                    (CJFormatter<Object>) serializer.formatter(i),
+                    Math.max(serializer.cacheSize(i), 0),
+                    serializer.isCJMap(i)
+                            ? CJKeyBounds.of(serializer.scanLimit(i), serializer.sampleRate(i),
+                            serializer.maxKeys(i), serializer.overflow(i))
+                            : CJKeyBounds.NONE));
+        }
+        return cjColumns;
+    }
+
+    /**
+     * Compile a getter for the field
+     * The getter has the type (Object)Object so it can be invoked
+     * exactly on the hot path without any field lookup
+     *
+     * @param field: The model field
+     * @return methodHandle: The compiled getter
+     */
+    private static MethodHandle genGetter(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                getter = MethodHandles.dropArguments(getter, 0, field.getDeclaringClass());
+            }
+            return getter.asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new CJException(e);
+        }
+    }
+
     /**
      * Get the column name of the csv
      *
      * @param field: The model field
      * @return string: The header name of the column
      */
-    private String genColumnName(Field field) {
+    private static String genColumnName(Field field) {
         return field.getDeclaredAnnotation(CJName.class) != null ?
                 field.getDeclaredAnnotation(CJName.class).value() :
                 field.getName();
@@ -124,13 +292,10 @@ public class CJStructure<T> {
     private void genCJMapsKeys() {
         cjColumns.stream()
                 .filter(CJColumn::isCJMap)
-                .forEach(utils.cjThrowingConsumerWrapper(cjColumn ->
+                .forEach(cjColumn ->
                         cjColumn.setMapKeys(
                                 new LinkedHashSet<>(
-                                        Arrays.asList(
-                                                clazz.getDeclaredField(cjColumn.getFieldName())
-                                                        .getDeclaredAnnotation(CJMap.class).keys())))
-                ));
+                                        Arrays.asList(cjColumn.getCjMapKeys()))));
     }
 
     /**
@@ -140,6 +305,27 @@ public class CJStructure<T> {
      * @return boolean : True when beanScan is needed and False when not
      */
     private Boolean beansScanNeeded() {
+        return beansScanNeeded(cjColumns);
+    }
+
+    /**
+     * Check if beans scan is needed for the model class
+     * without building its structure
+     *
+     * @param clazz: The model class
+     * @return boolean : True when beanScan is needed and False when not
+     */
+    static Boolean beansScanNeeded(Class clazz) {
+        return beansScanNeeded(plan(clazz));
+    }
+
+    /**
+     * Check if beans scan is needed for the compiled columns
+     *
+     * @param cjColumns: The compiled columns
+     * @return boolean : True when beanScan is needed and False when not
+     */
+    static Boolean beansScanNeeded(List<CJColumn> cjColumns) {
         return cjColumns.stream()
                 .filter(CJColumn::isCJMap)
                 .anyMatch(cjColumn -> !cjColumn.isCJStaticMap());
@@ -147,19 +333,17 @@ public class CJStructure<T> {
 
     /**
      * This function builds the structure of the dynamic fields
-     * It does that by iterating over the beans and
-     * get all the keys for each CJMap
+     * from all the keys found for each CJMap
+     *
+     * @param mapsKeys: The keys found in the beans for each CJMap field
      */
-    private void cjNonStaticMapsKeys() {
-        Map<String, Set<String>> mapsKeys = getBeansMapsKeys();
+    void cjNonStaticMapsKeys(Map<String, ? extends Set<?>> mapsKeys) {
 
         // Set cjColumn mapKeys
         cjColumns.stream()
                 .filter(CJColumn::isCJMap)
                 .filter(cjColumn -> !cjColumn.isCJStaticMap())
-                .forEach(utils.cjThrowingConsumerWrapper(cjColumn -> {
-                    Field field = clazz.getDeclaredField(cjColumn.getFieldName());
-                    CJMap cjMap = field.getAnnotation(CJMap.class);
+                .forEach(cjColumn -> {
 
                     // As this is a nonStatic map then there are two possibilities
                     // First the annotation keys have been set and includeNull = false
@@ -168,46 +352,95 @@ public class CJStructure<T> {
                     // we only cares about the bean's keys
                     Collection keys = mapsKeys.get(cjColumn.getFieldName());
                     keys = (keys == null) ? new HashSet() : keys;
-                    if (utils.nonEmptyStrings(cjMap.keys())) {
+                    if (utils.nonEmptyStrings(cjColumn.getCjMapKeys())) {
                         cjColumn.getMapKeys().retainAll(keys);
                     } else {
                         cjColumn.getMapKeys().addAll(keys);
                     }
-                }));
+                });
+        projectMapsKeys();
+    }
+
+    /**
+     * Restrict the maps keys to the selected columns
+     */
+    private void projectMapsKeys() {
+        if (projection != null) {
+            cjColumns.stream()
+                    .filter(CJColumn::isCJMap)
+                    .forEach(projection::keys);
+        }
     }
 
     /**
-     * For all CJMaps get all the possible keys
-     * from the beans
+     * For all CJMaps get the possible keys from the beans,
+     * within the bounds of each map. The scan stops once
+     * no map can find more keys
      */
-    private Map<String, Set<String>> getBeansMapsKeys() {
-        Map<String, Set<String>> mapsKeys = new HashMap<>();
-        beans.forEach(bean -> cjColumns.stream()
+    private Map<String, Set<Object>> getBeansMapsKeys() {
+        List<CJColumn> dynamicColumns = cjColumns.stream()
                 .filter(CJColumn::isCJMap)
                 .filter(cjColumn -> !cjColumn.isCJStaticMap())
-                .forEach(utils.cjThrowingConsumerWrapper(cjColumn -> {
-                    Set<String> keys = mapsKeys.computeIfAbsent(cjColumn.getFieldName(),
-                            k -> new LinkedHashSet<>());
-                    keys.addAll(getMapKeys(cjColumn, bean));
-                })));
+                .collect(Collectors.toList());
+        List<CJKeyBounds.Scan> scans = dynamicColumns.stream()
+                .map(cjColumn -> cjColumn.getKeyBounds().scan())
+                .collect(Collectors.toList());
+
+        Iterator<T> iterator = beans.iterator();
+        while (iterator.hasNext() && isAnyOpen(scans)) {
+            T bean = iterator.next();
+            for (int i = 0; i < dynamicColumns.size(); i++) {
+                scans.get(i).offer(getMap(dynamicColumns.get(i), bean));
+            }
+        }
+
+        Map<String, Set<Object>> mapsKeys = new HashMap<>();
+        for (int i = 0; i < dynamicColumns.size(); i++) {
+            mapsKeys.put(dynamicColumns.get(i).getFieldName(), scans.get(i).getKeys());
+        }
         return mapsKeys;
     }
 
-    /*
-     * Get the all the keys of the bean's map
+    private static boolean isAnyOpen(List<CJKeyBounds.Scan> scans) {
+        for (CJKeyBounds.Scan scan : scans) {
+            if (scan.isOpen()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of the first beans that are enough to find the keys of the
+     * dynamic maps, when every dynamic map has a `scanLimit`
      *
-     * @return set: A set of map's keys, otherwise EmptySet
+     * @param cjColumns: The compiled columns
+     * @return scanLimit: The largest scan limit, 0 when a dynamic map scans all the beans
      */
-    private Set getMapKeys(CJColumn cjColumn, T bean) throws IllegalAccessException, NoSuchFieldException {
-        Field field = bean.getClass().getDeclaredField(cjColumn.getFieldName());
+    static long scanLimit(List<CJColumn> cjColumns) {
+        long scanLimit = 0;
+        for (CJColumn cjColumn : cjColumns) {
+            if (cjColumn.isCJMap() && !cjColumn.isCJStaticMap()) {
+                long limit = cjColumn.getKeyBounds().getScanLimit();
+                if (limit == 0) {
+                    return 0;
+                }
+                scanLimit = Math.max(scanLimit, limit);
+            }
+        }
+        return scanLimit;
+    }
 
-        if (!utils.isMap(field)) {
+    /*
+     * Get the bean's map
+     *
+     * @return map: The map of the column, null when not set
+     */
+    static Map<?, ?> getMap(CJColumn cjColumn, Object bean) {
+        Object value = cjColumn.getValue(bean);
+        if (value != null && !(value instanceof Map)) {
             throw new CJException(CJExceptionMessages.OBJECT_NOT_MAP);
         }
-
-        field.setAccessible(true);
-        Object value = field.get(bean);
-        field.setAccessible(false);
-        return (value == null) ? Collections.emptySet() : ((Map) value).keySet();
+        return (Map<?, ?>) value;
     }
 }
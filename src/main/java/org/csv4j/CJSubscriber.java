@@ -0,0 +1,200 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * CJSubscriber writes the beans pushed by a publisher with demand
+ * based backpressure, the signals of a reactive streams subscriber.
+ *
+ * The beans are requested in batches and handed to an asynchronous
+ * export through a queue of one batch. The next batch is requested
+ * once the export has taken the last bean of the previous one from the
+ * queue, before it is rendered, so the queue holds at most a batch of
+ * beans whatever the speed of the publisher. The completion
+ * flushes and closes the writer, an error aborts the export and closes
+ * it. The writer is only closed by the export, once it has stopped
+ * writing. The `csv4j-flow` module adapts it to `java.util.concurrent.Flow`
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJSubscriber<T> {
+
+    private static final Object COMPLETE = new Object();
+
+    private final int batchSize;
+    private final Function<Iterable<T>, CompletableFuture<CJExportResult>> export;
+    private final BlockingQueue<Object> queue;
+    private final CompletableFuture<CJExportResult> result = new CompletableFuture<CJExportResult>() {
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (isDone()) {
+                return false;
+            }
+            // The result is cancelled once the export has stopped, or at once before the subscription
+            return stop(mayInterruptIfRunning) || super.cancel(mayInterruptIfRunning);
+        }
+    };
+    private volatile boolean cancelled;
+    private volatile CompletableFuture<CJExportResult> exporting;
+    private LongConsumer request;
+
+    /**
+     * Args Constructor
+     *
+     * @param batchSize: The number of the beans requested at once
+     * @param export:    Starts the export of the beans, it closes the writer once it has stopped
+     */
+    CJSubscriber(int batchSize, Function<Iterable<T>, CompletableFuture<CJExportResult>> export) {
+        this.batchSize = Math.max(batchSize, 1);
+        this.export = export;
+        this.queue = new ArrayBlockingQueue<>(this.batchSize + 1);
+    }
+
+    /**
+     * Start the export and request the first batch
+     *
+     * @param request: Requests more beans from the publisher
+     * @param cancel:  Cancels the subscription
+     */
+    public void onSubscribe(LongConsumer request, Runnable cancel) {
+        if (this.request != null) {
+            cancel.run();
+            return;
+        }
+        this.request = request;
+
+        // The first batch is requested before the export requests the next ones
+        request.accept(this.batchSize);
+
+        Iterator<T> beans = new Beans();
+        exporting = export.apply(() -> beans);
+        exporting.whenComplete((exported, e) -> {
+            if (e != null) {
+                cancel.run();
+            }
+            if (cancelled) {
+                result.completeExceptionally(new CancellationException());
+                return;
+            }
+            if (e != null) {
+                result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+            } else {
+                result.complete(exported);
+            }
+        });
+    }
+
+    /**
+     * Stop the export before the next bean, without waiting for it to close the writer
+     *
+     * @param mayInterruptIfRunning: Interrupt the export thread
+     * @return started: Whether the export was started, its completion then cancels the result
+     */
+    private boolean stop(boolean mayInterruptIfRunning) {
+        cancelled = true;
+        queue.offer(new Failure(new CancellationException()));
+        CompletableFuture<CJExportResult> exporting = this.exporting;
+        if (exporting == null) {
+            return false;
+        }
+        exporting.cancel(mayInterruptIfRunning);
+        return true;
+    }
+
+    /**
+     * A bean pushed by the publisher, within the requested beans
+     */
+    public void onNext(T bean) {
+        if (bean == null) {
+            throw new NullPointerException();
+        }
+        queue.add(bean);
+    }
+
+    /**
+     * The publisher failed, the export is aborted
+     */
+    public void onError(Throwable throwable) {
+        queue.add(new Failure(throwable));
+    }
+
+    /**
+     * The publisher completed, the export is flushed and the writer closed
+     */
+    public void onComplete() {
+        queue.add(COMPLETE);
+    }
+
+    /**
+     * Get the result of the export, completed once the writer is closed.
+     * Cancelling it stops the export and cancels the subscription, the
+     * result is cancelled once the export has closed the writer
+     */
+    public CompletableFuture<CJExportResult> result() {
+        return result;
+    }
+
+    /**
+     * The failure of the publisher
+     */
+    private static class Failure {
+        private final Exception exception;
+
+        Failure(Throwable throwable) {
+            this.exception = throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+        }
+    }
+
+    /**
+     * The beans of the export, taken from the queue
+     * and requested again once a batch is taken
+     */
+    private class Beans implements Iterator<T> {
+        private Object next;
+        private int taken;
+
+        @Override
+        public boolean hasNext() {
+            if (cancelled) {
+                throw new CJException(new CancellationException());
+            }
+            if (next == null) {
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CJException(e);
+                }
+            }
+            if (next instanceof Failure) {
+                throw new CJException(((Failure) next).exception);
+            }
+            return next != COMPLETE;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T bean = (T) next;
+            next = null;
+            if (++taken == batchSize) {
+                taken = 0;
+                request.accept(batchSize);
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package org.csv4j;
+
+import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CJTable holds the data of a csv in typed columns, without beans.
+ *
+ * The columns are backed by primitive arrays, `int[]`, `long[]`, `double[]`,
+ * bitsets for booleans and dictionary codes for strings, with a null bitmap
+ * each. The rows are appended through a reusable `Row` cursor without boxing,
+ * and `CJWriter` renders them straight from the arrays with its options.
+ * A table is not thread safe
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJTable {
+
+    private final CJTableColumn[] columns;
+    private final Row row = new Row();
+    private int rows;
+
+    private CJTable(List<CJTableColumn> columns) {
+        this.columns = columns.toArray(new CJTableColumn[0]);
+    }
+
+    /**
+     * Get a builder of the table columns
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Start a new row, its values are put in the columns order
+     *
+     * @return row: The cursor of the row, the same instance for every row
+     */
+    public Row row() {
+        if (row.column != 0) {
+            throw new CJException(CJExceptionMessages.TABLE_ROW_INCOMPLETE);
+        }
+        return row;
+    }
+
+    /**
+     * Get the number of the rows
+     */
+    public int getRowsLength() {
+        return rows;
+    }
+
+    /**
+     * Get the number of the columns
+     */
+    public int getColumnsLength() {
+        return columns.length;
+    }
+
+    /**
+     * Get the names of the columns, the header of the csv
+     */
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.length);
+        for (CJTableColumn column : columns) {
+            names.add(column.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Get the columns, rendered by `CJTableWriter`
+     */
+    CJTableColumn[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * CJTable builder, the columns are defined in the csv order
+     */
+    public static class Builder {
+
+        private final List<CJTableColumn> columns = new ArrayList<>();
+        private int capacity = 1024;
+
+        /**
+         * The initial number of the rows of each column -> default 1024
+         */
+        public Builder capacity(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            return this;
+        }
+
+        /**
+         * A column of ints
+         */
+        public Builder intColumn(String name) {
+            columns.add(new CJTableColumn.Ints(name));
+            return this;
+        }
+
+        /**
+         * A column of longs
+         */
+        public Builder longColumn(String name) {
+            columns.add(new CJTableColumn.Longs(name));
+            return this;
+        }
+
+        /**
+         * A column of doubles, rendered as their shortest representation
+         */
+        public Builder doubleColumn(String name) {
+            columns.add(new CJTableColumn.Doubles(name));
+            return this;
+        }
+
+        /**
+         * A column of booleans
+         */
+        public Builder booleanColumn(String name) {
+            columns.add(new CJTableColumn.Booleans(name));
+            return this;
+        }
+
+        /**
+         * A column of strings, each distinct string is held once
+         */
+        public Builder stringColumn(String name) {
+            columns.add(new CJTableColumn.Strings(name));
+            return this;
+        }
+
+        /**
+         * Build the empty table
+         */
+        public CJTable build() {
+            columns.forEach(column -> column.grow(capacity));
+            return new CJTable(columns);
+        }
+    }
+
+    /**
+     * The cursor appending the values of a row in the columns order.
+     * The row is added to the table by `end`
+     */
+    public class Row {
+
+        private int column;
+
+        /**
+         * Put an int in the next column
+         */
+        public Row putInt(int value) {
+            ((CJTableColumn.Ints) next(CJTableColumn.Ints.class)).put(rows, value);
+            return this;
+        }
+
+        /**
+         * Put a long in the next column
+         */
+        public Row putLong(long value) {
+            ((CJTableColumn.Longs) next(CJTableColumn.Longs.class)).put(rows, value);
+            return this;
+        }
+
+        /**
+         * Put a double in the next column
+         */
+        public Row putDouble(double value) {
+            ((CJTableColumn.Doubles) next(CJTableColumn.Doubles.class)).put(rows, value);
+            return this;
+        }
+
+        /**
+         * Put a boolean in the next column
+         */
+        public Row putBoolean(boolean value) {
+            ((CJTableColumn.Booleans) next(CJTableColumn.Booleans.class)).put(rows, value);
+            return this;
+        }
+
+        /**
+         * Put a string in the next column, null is put as a null
+         */
+        public Row putString(String value) {
+            CJTableColumn.Strings strings = (CJTableColumn.Strings) next(CJTableColumn.Strings.class);
+            if (value == null) {
+                strings.putNull(rows);
+            } else {
+                strings.put(rows, value);
+            }
+            return this;
+        }
+
+        /**
+         * Put a null in the next column, whatever its type
+         */
+        public Row putNull() {
+            next(null).putNull(rows);
+            return this;
+        }
+
+        /**
+         * Add the row to the table
+         */
+        public void end() {
+            if (column != columns.length) {
+                throw new CJException(CJExceptionMessages.TABLE_ROW_INCOMPLETE);
+            }
+            column = 0;
+            rows++;
+        }
+
+        /**
+         * Get the next column of the row, growing it when full
+         *
+         * @param type: The expected column type, null for any
+         * @return column: The next column
+         */
+        private CJTableColumn next(Class<? extends CJTableColumn> type) {
+            if (column == columns.length) {
+                throw new CJException(CJExceptionMessages.TABLE_ROW_INCOMPLETE);
+            }
+            CJTableColumn next = columns[column];
+            if (type != null && next.getClass() != type) {
+                throw new CJException(CJExceptionMessages.TABLE_COLUMN_TYPE);
+            }
+            if (rows == next.capacity()) {
+                next.grow(rows + (rows >> 1) + 1);
+            }
+            column++;
+            return next;
+        }
+    }
+
+    /**
+     * A column of the table
+     */
+    abstract static class CJTableColumn {
+
+        final String name;
+        private long[] nulls = new long[0];
+
+        CJTableColumn(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Check if the value of the row is null
+         */
+        boolean isNull(int row) {
+            int word = row >>> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        void putNull(int row) {
+            int word = row >>> 6;
+            if (word >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+            }
+            nulls[word] |= 1L << row;
+        }
+
+        /**
+         * Append the value of a non null row
+         *
+         * @param row:    The row
+         * @param out:    The buffer to append to
+         * @param quoter: The quoter of the cells
+         */
+        abstract void append(int row, CJCharBuffer out, CJQuoter quoter);
+
+        /**
+         * Prepare the column for rendering with the quoter
+         */
+        void prepare(CJQuoter quoter) {
+        }
+
+        abstract int capacity();
+
+        abstract void grow(int capacity);
+
+        static class Ints extends CJTableColumn {
+            private int[] values = new int[0];
+
+            Ints(String name) {
+                super(name);
+            }
+
+            void put(int row, int value) {
+                values[row] = value;
+            }
+
+            @Override
+            void append(int row, CJCharBuffer out, CJQuoter quoter) {
+                int start = out.length();
+                out.append(values[row]);
+                quoter.quote(out, start, true);
+            }
+
+            @Override
+            int capacity() {
+                return values.length;
+            }
+
+            @Override
+            void grow(int capacity) {
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        static class Longs extends CJTableColumn {
+            private long[] values = new long[0];
+
+            Longs(String name) {
+                super(name);
+            }
+
+            void put(int row, long value) {
+                values[row] = value;
+            }
+
+            @Override
+            void append(int row, CJCharBuffer out, CJQuoter quoter) {
+                int start = out.length();
+                out.append(values[row]);
+                quoter.quote(out, start, true);
+            }
+
+            @Override
+            int capacity() {
+                return values.length;
+            }
+
+            @Override
+            void grow(int capacity) {
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        static class Doubles extends CJTableColumn {
+            private double[] values = new double[0];
+
+            Doubles(String name) {
+                super(name);
+            }
+
+            void put(int row, double value) {
+                values[row] = value;
+            }
+
+            @Override
+            void append(int row, CJCharBuffer out, CJQuoter quoter) {
+                int start = out.length();
+                CJDoubleEncoder.append(values[row], out);
+                quoter.quote(out, start, true);
+            }
+
+            @Override
+            int capacity() {
+                return values.length;
+            }
+
+            @Override
+            void grow(int capacity) {
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+
+        static class Booleans extends CJTableColumn {
+            private long[] bits = new long[0];
+            private int capacity;
+
+            Booleans(String name) {
+                super(name);
+            }
+
+            void put(int row, boolean value) {
+                if (value) {
+                    bits[row >>> 6] |= 1L << row;
+                } else {
+                    bits[row >>> 6] &= ~(1L << row);
+                }
+            }
+
+            @Override
+            void append(int row, CJCharBuffer out, CJQuoter quoter) {
+                int start = out.length();
+                out.append((bits[row >>> 6] & (1L << row)) != 0);
+                quoter.quote(out, start, false);
+            }
+
+            @Override
+            int capacity() {
+                return capacity;
+            }
+
+            @Override
+            void grow(int capacity) {
+                this.bits = Arrays.copyOf(bits, (capacity + 63) >>> 6);
+                this.capacity = bits.length << 6;
+            }
+        }
+
+        /**
+         * The strings are held once in a dictionary and the rows hold their codes,
+         * so each distinct string is quoted once per export
+         */
+        static class Strings extends CJTableColumn {
+            private int[] codes = new int[0];
+            private final Map<String, Integer> dictionary = new HashMap<>();
+            private final List<String> values = new ArrayList<>();
+            private String[] cells;
+
+            Strings(String name) {
+                super(name);
+            }
+
+            void put(int row, String value) {
+                Integer code = dictionary.get(value);
+                if (code == null) {
+                    code = values.size();
+                    dictionary.put(value, code);
+                    values.add(value);
+                }
+                codes[row] = code;
+            }
+
+            @Override
+            void prepare(CJQuoter quoter) {
+                cells = new String[values.size()];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = quoter.cell(values.get(i));
+                }
+            }
+
+            @Override
+            void append(int row, CJCharBuffer out, CJQuoter quoter) {
+                out.append(cells[codes[row]]);
+            }
+
+            @Override
+            int capacity() {
+                return codes.length;
+            }
+
+            @Override
+            void grow(int capacity) {
+                codes = Arrays.copyOf(codes, capacity);
+            }
+        }
+    }
+}
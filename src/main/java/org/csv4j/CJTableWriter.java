@@ -0,0 +1,113 @@
+package org.csv4j;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * CJTableWriter renders the rows of a `CJTable` straight
+ * from its columns, in the same format as `CJWriteIterator`
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJTableWriter {
+
+    private final CJTable table;
+    private final String delimiter;
+    private final String lineSeparator;
+    private final String nullValue;
+    private final CJQuoter quoter;
+    private final int bufferSize;
+    private final CJMetricsListener metrics;
+    private long rowsWritten;
+    private long charsWritten;
+
+    /**
+     * Args Constructor
+     *
+     * @param table:         The table to render
+     * @param delimiter:     The delimiter between cols
+     * @param lineSeparator: The line separator between rows
+     * @param nullValue:     Supersede the null value with this
+     * @param quoter:        The quoter of the cells and header names
+     * @param bufferSize:    The number of chars buffered before they are handed to the writer
+     * @param metrics:       The listener of the flushes
+     */
+    CJTableWriter(CJTable table, String delimiter, String lineSeparator, String nullValue,
+                  CJQuoter quoter, int bufferSize, CJMetricsListener metrics) {
+        this.table = table;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+        this.nullValue = nullValue;
+        this.quoter = quoter;
+        this.bufferSize = Math.max(bufferSize, 1);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Generate the header of the csv
+     *
+     * @return header: The column names and the line separator
+     */
+    String header() {
+        return table.getColumnNames().stream()
+                .map(quoter::cell)
+                .collect(Collectors.joining(delimiter, "", lineSeparator));
+    }
+
+    /**
+     * Append the rows to the appendable, separated by the line separator
+     *
+     * @param out: The appendable to append the rows to
+     */
+    void rowsTo(Appendable out) throws IOException {
+        long start = metrics == CJMetricsListener.NONE ? 0 : System.nanoTime();
+        CJTable.CJTableColumn[] columns = table.getColumns();
+        Arrays.stream(columns).forEach(column -> column.prepare(quoter));
+
+        CJCharBuffer buffer = new CJCharBuffer(bufferSize + 256);
+        int rowsLength = table.getRowsLength();
+        int rows = 0;
+        for (int row = 0; row < rowsLength; row++) {
+            if (row > 0) {
+                buffer.append(lineSeparator);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    buffer.append(delimiter);
+                }
+                if (columns[i].isNull(row)) {
+                    buffer.append(nullValue);
+                } else {
+                    columns[i].append(row, buffer, quoter);
+                }
+            }
+            rows++;
+            if (buffer.length() >= bufferSize) {
+                flush(buffer, out, rows);
+                rows = 0;
+            }
+        }
+        flush(buffer, out, rows);
+
+        if (metrics != CJMetricsListener.NONE) {
+            metrics.completed(rowsWritten, charsWritten, System.nanoTime() - start);
+        }
+    }
+
+    private void flush(CJCharBuffer buffer, Appendable out, int rows) throws IOException {
+        int chars = buffer.length();
+        if (chars == 0) {
+            return;
+        }
+        rowsWritten += rows;
+        charsWritten += chars;
+        long start = metrics == CJMetricsListener.NONE ? 0 : System.nanoTime();
+        buffer.appendTo(out);
+        buffer.clear();
+        if (metrics != CJMetricsListener.NONE) {
+            metrics.flushed(rows, chars, System.nanoTime() - start);
+            metrics.progress(rowsWritten, table.getRowsLength());
+        }
+    }
+}
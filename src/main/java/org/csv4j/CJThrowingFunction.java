@@ -0,0 +1,9 @@
+package org.csv4j;
+
+/**
+ * @author Omar Muhtaseb
+ */
+@FunctionalInterface
+public interface CJThrowingFunction<T, R, E extends Exception> {
+    R apply(T t) throws E;
+}
@@ -0,0 +1,162 @@
+package org.csv4j;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * CJTimeEncoder appends the `java.time` values in the format
+ * of their `toString`, ISO-8601 and locale independent.
+ *
+ * The rendered dates of the last day and the rendered date times of the
+ * last second are cached, so the timestamps sharing a day only render
+ * their time and the instants sharing a second only their fraction.
+ * The cached prefixes are immutable and shared by the exporting threads,
+ * a race only makes a miss
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJTimeEncoder {
+
+    private static final long SECONDS_0000_TO_1970 = 62167219200L;
+    private static final long SECONDS_1970_TO_10000 = 253402300800L;
+
+    private static Prefix day = new Prefix(-1, new char[0]);
+    private static Prefix second = new Prefix(Long.MIN_VALUE, new char[0]);
+
+    private CJTimeEncoder() {
+    }
+
+    /**
+     * Append the value when it is a supported `java.time` value
+     *
+     * @param value: The value
+     * @param out:   The buffer to append to
+     * @return boolean: Whether the value is appended
+     */
+    static boolean append(Object value, CJCharBuffer out) {
+        if (value instanceof LocalDateTime) {
+            appendDateTime((LocalDateTime) value, out);
+        } else if (value instanceof Instant) {
+            appendInstant((Instant) value, out);
+        } else if (value instanceof LocalDate) {
+            LocalDate date = (LocalDate) value;
+            appendDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), out);
+        } else if (value instanceof OffsetDateTime) {
+            OffsetDateTime dateTime = (OffsetDateTime) value;
+            appendDateTime(dateTime.toLocalDateTime(), out);
+            out.append(dateTime.getOffset().getId());
+        } else if (value instanceof ZonedDateTime) {
+            ZonedDateTime dateTime = (ZonedDateTime) value;
+            appendDateTime(dateTime.toLocalDateTime(), out);
+            out.append(dateTime.getOffset().getId());
+            if (dateTime.getOffset() != dateTime.getZone()) {
+                out.append('[').append(dateTime.getZone().toString()).append(']');
+            }
+        } else if (value instanceof LocalTime) {
+            LocalTime time = (LocalTime) value;
+            appendTime(time.getHour(), time.getMinute(), time.getSecond(), time.getNano(), out);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Append the date time like `LocalDateTime.toString`
+     */
+    private static void appendDateTime(LocalDateTime dateTime, CJCharBuffer out) {
+        appendDate(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), out);
+        out.append('T');
+        appendTime(dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), out);
+    }
+
+    /**
+     * Append the date like `LocalDate.toString`, from the cache when it is the last day
+     */
+    private static void appendDate(int year, int month, int dayOfMonth, CJCharBuffer out) {
+        if (year < 0 || year > 9999) {
+            out.append(LocalDate.of(year, month, dayOfMonth).toString());
+            return;
+        }
+        long key = ((long) year << 9) | (month << 5) | dayOfMonth;
+        Prefix prefix = day;
+        if (prefix.key != key) {
+            CJCharBuffer date = new CJCharBuffer(16);
+            date.appendPadded(year, 4).append('-').appendPadded(month, 2).append('-').appendPadded(dayOfMonth, 2);
+            prefix = new Prefix(key, date.toString().toCharArray());
+            day = prefix;
+        }
+        out.append(prefix.chars, 0, prefix.chars.length);
+    }
+
+    /**
+     * Append the time like `LocalTime.toString`, the seconds are omitted when zero
+     */
+    private static void appendTime(int hour, int minute, int secondOfMinute, int nano, CJCharBuffer out) {
+        out.appendPadded(hour, 2).append(':').appendPadded(minute, 2);
+        if (secondOfMinute > 0 || nano > 0) {
+            out.append(':').appendPadded(secondOfMinute, 2);
+            appendNano(nano, out);
+        }
+    }
+
+    /**
+     * Append the instant like `Instant.toString`, from the cache when it is the last second
+     */
+    private static void appendInstant(Instant instant, CJCharBuffer out) {
+        long epochSecond = instant.getEpochSecond();
+        if (epochSecond < -SECONDS_0000_TO_1970 || epochSecond >= SECONDS_1970_TO_10000) {
+            out.append(instant.toString());
+            return;
+        }
+        Prefix prefix = second;
+        if (prefix.key != epochSecond) {
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+            CJCharBuffer date = new CJCharBuffer(24);
+            appendDate(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), date);
+            date.append('T').appendPadded(dateTime.getHour(), 2)
+                    .append(':').appendPadded(dateTime.getMinute(), 2)
+                    .append(':').appendPadded(dateTime.getSecond(), 2);
+            prefix = new Prefix(epochSecond, date.toString().toCharArray());
+            second = prefix;
+        }
+        out.append(prefix.chars, 0, prefix.chars.length);
+        appendNano(instant.getNano(), out);
+        out.append('Z');
+    }
+
+    /**
+     * Append the fraction of the second in groups of three digits, nothing when zero
+     */
+    private static void appendNano(int nano, CJCharBuffer out) {
+        if (nano == 0) {
+            return;
+        }
+        out.append('.');
+        if (nano % 1000_000 == 0) {
+            out.appendPadded(nano / 1000_000, 3);
+        } else if (nano % 1000 == 0) {
+            out.appendPadded(nano / 1000, 6);
+        } else {
+            out.appendPadded(nano, 9);
+        }
+    }
+
+    /**
+     * A rendered prefix and its key
+     */
+    private static final class Prefix {
+        private final long key;
+        private final char[] chars;
+
+        Prefix(long key, char[] chars) {
+            this.key = key;
+            this.chars = chars;
+        }
+    }
+}
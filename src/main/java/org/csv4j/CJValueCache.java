@@ -0,0 +1,102 @@
+package org.csv4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CJValueCache holds the rendered cells of the values of a column
+ *
+ * The cells are the formatted and quoted chars, matched by the value
+ * equality. The lookups are lock free so the parallel rendering shares
+ * the cache, only the misses lock it to insert. Once full, a cell is
+ * evicted with the clock algorithm: the hand skips, and clears, the
+ * cells used since it last passed
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJValueCache {
+
+    private final int capacity;
+    private final Map<Object, Entry> entries;
+    private final Entry[] ring;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private int hand;
+
+    /**
+     * Args Constructor
+     *
+     * @param capacity: The max number of the cached cells
+     */
+    CJValueCache(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        this.entries = new ConcurrentHashMap<>(this.capacity * 2);
+        this.ring = new Entry[this.capacity];
+    }
+
+    /**
+     * Get the cell of the value
+     *
+     * @param value: The non null value
+     * @return cell: The cached cell, null on a miss
+     */
+    char[] get(Object value) {
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.cell;
+    }
+
+    /**
+     * Cache the cell of the value, evicting a cell when full
+     *
+     * @param value: The non null value
+     * @param cell:  The rendered cell
+     */
+    synchronized void put(Object value, char[] cell) {
+        if (entries.containsKey(value)) {
+            return;
+        }
+        while (ring[hand] != null && ring[hand].referenced) {
+            ring[hand].referenced = false;
+            hand = (hand + 1) % capacity;
+        }
+        if (ring[hand] != null) {
+            entries.remove(ring[hand].value);
+        }
+        Entry entry = new Entry(value, cell);
+        ring[hand] = entry;
+        entries.put(value, entry);
+        hand = (hand + 1) % capacity;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final char[] cell;
+        private volatile boolean referenced;
+
+        Entry(Object value, char[] cell) {
+            this.value = value;
+            this.cell = cell;
+        }
+    }
+}
@@ -3,12 +3,16 @@ package org.csv4j;
 import org.csv4j.exception.CJException;
 import org.csv4j.exception.CJExceptionMessages;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.Writer;
-import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -17,7 +21,27 @@ import java.util.stream.Stream;
  *
  * @author Omar Muhtaseb
  */
-public class CJWriteIterator<T> {
+public class CJWriteIterator<T> implements Closeable {
+
+    /**
+     * The default number of chars buffered before they are handed to the writer
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * The default number of rows rendered by each task in parallel mode
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * The projected cell without a source cell, padded with the null value
+     */
+    static final int PADDED = -1;
+
+    /**
+     * The projected cell holding the overflow cells
+     */
+    static final int OVERFLOW = -2;
 
     private CJStructure<T> cjStructure;
     private Iterator<T> beans;
@@ -27,6 +51,24 @@ public class CJWriteIterator<T> {
     private String multiValuesSeparator;
     private Writer writer;
     private Integer totalRows;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private CJCharBuffer buffer;
+    private CJCharBuffer cellBuffer;
+    private CJColumn[] columns;
+    private CJSpill<T> spill;
+    private ForkJoinPool pool;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private CJQuoter quoter = CJQuoter.NONE;
+    private CJMetricsListener metrics = CJMetricsListener.NONE;
+    private long rowsWritten;
+    private long charsWritten;
+    private int asyncBuffers;
+    private CJAsyncWriter asyncWriter;
+    private volatile boolean cancelled;
+    private int[] projection;
+    private int[] overflowSources;
+    private String[] overflowNames;
+    private ThreadLocal<RowCells> rowCells;
 
     /**
      * Args constructor
@@ -56,37 +98,309 @@ public class CJWriteIterator<T> {
      */
     public CJWriteIterator(CJStructure<T> cjStructure, Collection<T> beans, String delimiter,
                            String lineSeparator, String nullValue, String multiValuesSeparator, Writer writer) {
+        this(cjStructure, beans.iterator(), beans.size(), delimiter, lineSeparator, nullValue,
+                multiValuesSeparator, writer);
+    }
+
+    /**
+     * Args constructor
+     *
+     * @param cjStructure:          The structure of the csv
+     * @param beans:                The iterator of data, it is consumed lazily
+     * @param totalRows:            The number of rows, null when unknown
+     * @param delimiter:            The delimiter between cols
+     * @param lineSeparator:        The line separator between rows
+     * @param nullValue:            Supersede the null value with this
+     * @param multiValuesSeparator: The separator of items in collections and arrays
+     * @param writer:               The java writer
+     */
+    public CJWriteIterator(CJStructure<T> cjStructure, Iterator<T> beans, Integer totalRows, String delimiter,
+                           String lineSeparator, String nullValue, String multiValuesSeparator, Writer writer) {
         this.cjStructure = cjStructure;
-        this.beans = beans.iterator();
+        this.columns = cjStructure.getStructure().toArray(new CJColumn[0]);
+        for (CJColumn cjColumn : columns) {
+            cjColumn.setCache(cjColumn.getCacheSize() > 0 ? new CJValueCache(cjColumn.getCacheSize()) : null);
+        }
+        this.beans = beans;
         this.delimiter = delimiter;
         this.lineSeparator = lineSeparator;
         this.nullValue = nullValue;
         this.multiValuesSeparator = multiValuesSeparator;
         this.writer = writer;
-        this.totalRows = beans.size();
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * The number of chars buffered before they are handed to the writer
+     */
+    public CJWriteIterator<T> bufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
     }
 
     /**
-     * Return the total number of rows for the csv
+     * Render the remaining rows in parallel on the pool
+     *
+     * The rows are split into chunks that are rendered by the pool
+     * workers, the chunks are then written in the original order.
+     * At most twice the pool parallelism chunks are held in memory
+     *
+     * @param pool:      The pool to render the rows on, null to render sequentially
+     * @param chunkSize: The number of rows rendered by each task
+     */
+    public CJWriteIterator<T> parallel(ForkJoinPool pool, int chunkSize) {
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Quote the cells and the header names
+     *
+     * @param quoteMode:  Which cells are quoted
+     * @param quoteChar:  The char wrapping the quoted cells
+     * @param escapeChar: The char escaping the quotes in the quoted cells
+     */
+    public CJWriteIterator<T> quoting(CJQuoteMode quoteMode, char quoteChar, char escapeChar) {
+        this.quoter = new CJQuoter(quoteMode, quoteChar, escapeChar, delimiter, lineSeparator);
+        return this;
+    }
+
+    /**
+     * Write to the writer on a dedicated I/O thread -> default 0, off
+     * The rendered buffers are handed to the I/O thread through a ring,
+     * the rendering blocks only when the ring is full
+     *
+     * @param buffers: The number of the buffers in the ring, 0 is off
+     */
+    public CJWriteIterator<T> async(int buffers) {
+        this.asyncBuffers = buffers;
+        return this;
+    }
+
+    /**
+     * Resolve the formatter of each column, cached on the columns so the
+     * rendering makes a single call per cell. The `CJFormat` formatter of
+     * a field supersedes the registered ones
+     *
+     * @param formatters: The formatters registered per type
+     */
+    CJWriteIterator<T> formatters(CJFormatters formatters) {
+        for (CJColumn cjColumn : columns) {
+            if (cjColumn.getFieldFormatter() != null) {
+                cjColumn.setFormatter(cjColumn.getFieldFormatter());
+            } else if (cjColumn.isCJMap()) {
+                cjColumn.setFormatter(formatters.resolve(Object.class, ToString::valueOf));
+            } else {
+                cjColumn.setFormatter(formatters.resolve(cjColumn.getType(), this::appendRawValue));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write the rows aligned to other columns, like the header of an existing file.
+     * The cells of a row are rendered first, then written in the projected order.
+     * A projection of the projected cells is composed with the current one
+     *
+     * @param projection:      The cell of each written cell, `PADDED` or `OVERFLOW`
+     * @param overflowSources: The cells written to the overflow cell as name=value pairs
+     */
+    void project(int[] projection, int[] overflowSources) {
+        List<String> names = cellNames();
+        this.overflowNames = new String[overflowSources.length];
+        for (int i = 0; i < overflowSources.length; i++) {
+            overflowNames[i] = names.get(overflowSources[i]);
+        }
+        if (this.projection != null) {
+            projection = projection.clone();
+            overflowSources = overflowSources.clone();
+            for (int i = 0; i < projection.length; i++) {
+                projection[i] = projection[i] >= 0 ? this.projection[projection[i]] : projection[i];
+            }
+            for (int i = 0; i < overflowSources.length; i++) {
+                overflowSources[i] = this.projection[overflowSources[i]];
+            }
+        }
+        this.projection = projection;
+        this.overflowSources = overflowSources;
+        int cells = structureNames().size();
+        this.rowCells = ThreadLocal.withInitial(() -> new RowCells(cells));
+    }
+
+    /**
+     * The listener of the rows written -> default NONE
+     */
+    public CJWriteIterator<T> metrics(CJMetricsListener metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Return the total number of rows for the csv,
+     * null when the source size is unknown
      */
     public Integer totalRows() {
         return totalRows;
     }
 
+    /**
+     * Get the structure of the csv
+     */
+    CJStructure<T> getCJStructure() {
+        return cjStructure;
+    }
+
+    /**
+     * Get the pool rendering the rows, null when the rows
+     * are rendered on the calling thread or replayed from a spill file
+     */
+    ForkJoinPool getPool() {
+        return spill == null ? pool : null;
+    }
+
+    /**
+     * Stop rendering the rows, the remaining rows stop
+     * with a CancellationException before the next row
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Get the number of the rows written to the writers so far
+     */
+    long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Get the number of the chars of the rows written to the writers so far
+     */
+    long getCharsWritten() {
+        return charsWritten;
+    }
+
+    /**
+     * Get the next bean of the source, it is not rendered
+     */
+    T nextBean() {
+        return beans.next();
+    }
+
     /**
      * Check if the csv has next rows
      *
      * @return boolean: True if there are still rows
      */
     public Boolean hasNext() {
-        return beans.hasNext();
+        if (spill == null) {
+            return beans.hasNext();
+        }
+        if (!spill.hasNext()) {
+            closeSpill();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the resources held by the iterator, like the
+     * spill file of a single pass export. The writer is not closed
+     */
+    @Override
+    public void close() {
+        try {
+            closeSpill();
+        } finally {
+            closeAsyncWriter();
+        }
+    }
+
+    /**
+     * Delete the spill file of a single pass export
+     */
+    private void closeSpill() {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                throw new CJException(e);
+            }
+        }
+    }
+
+    /**
+     * Wait until the written rows reach the writer and flush it,
+     * the failures of the I/O thread in async mode are thrown here
+     */
+    public void flush() throws IOException {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
+        } else if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Stop the I/O thread in async mode, the writer is not closed
+     */
+    private void closeAsyncWriter() {
+        if (asyncWriter == null) {
+            return;
+        }
+        try {
+            asyncWriter.close();
+        } catch (IOException e) {
+            throw new CJException(e);
+        } finally {
+            asyncWriter = null;
+        }
+    }
+
+    /**
+     * Get the writer of the rows, the I/O thread writer in async mode
+     */
+    private Writer writer() {
+        if (asyncBuffers <= 0 || writer == null) {
+            return writer;
+        }
+        if (asyncWriter == null) {
+            asyncWriter = new CJAsyncWriter(writer, false, bufferSize, asyncBuffers);
+        }
+        return asyncWriter;
+    }
+
+    /**
+     * Consume the source once, spilling the rendered rows to a
+     * temporary file while collecting the dynamic maps keys.
+     * The structure keys are then set and the rows are replayed
+     * from the spill file aligned to the final columns
+     *
+     * @param source:     The data to consume
+     * @param directory:  The spill directory, the system temp directory when null
+     * @param bufferSize: The size of the spill file buffers in bytes
+     * @param deleteOnClose: Delete the spill file once closed
+     */
+    void spill(Iterator<T> source, Path directory, int bufferSize, Boolean deleteOnClose) {
+        spill = new CJSpill<>(cjStructure.getStructure(), this::cell, this::mapCell, this::overflowCell,
+                nullValue, directory, bufferSize, deleteOnClose);
+        try {
+            source.forEachRemaining(spill::write);
+            cjStructure.cjNonStaticMapsKeys(spill.finish());
+            spill.replay();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        totalRows = spill.getRows();
     }
 
     /**
      * Write the header of the csv as String
      */
     public void writeHeader() throws IOException {
-        writer.write(header());
+        writer().write(header());
     }
 
     /**
@@ -95,22 +409,53 @@ public class CJWriteIterator<T> {
      * @return header: String of the generated header
      */
     public String header() {
+        return cellNames().stream()
+                .map(quoter::cell)
+                .collect(Collectors.joining(delimiter, "", lineSeparator));
+    }
+
+    /**
+     * Get the header names of the written cells in the row order, unquoted
+     */
+    List<String> cellNames() {
+        List<String> names = structureNames();
+        if (projection == null) {
+            return names;
+        }
+        List<String> projected = new ArrayList<>(projection.length);
+        for (int source : projection) {
+            projected.add(names.get(source));
+        }
+        return projected;
+    }
+
+    /**
+     * Get the header names of the rendered cells of the structure, unquoted
+     */
+    private List<String> structureNames() {
         return cjStructure.getStructure().stream()
                 .flatMap(cjColumn -> {
                     if (!cjColumn.isCJMap()) {
                         return Stream.of(cjColumn.getCjName());
                     }
-                    return cjColumn.getMapKeys().stream().map(String::valueOf);
+                    Stream<String> keys = cjColumn.getMapKeys().stream().map(String::valueOf);
+                    if (!cjColumn.hasOverflow()) {
+                        return keys;
+                    }
+                    return Stream.concat(keys, Stream.of(cjColumn.getKeyBounds().getOverflow()));
                 })
-                .collect(Collectors.joining(delimiter, "", lineSeparator));
+                .collect(Collectors.toList());
     }
 
     /**
      * Write the csv for the remaining data in
      * the iterator
+     * The rows are written as they are generated, at most
+     * `bufferSize` chars are held in memory before being
+     * handed to the writer
      */
     public void writeRemaining() throws IOException {
-        writer.write(remaining());
+        remainingTo(writer());
     }
 
     /**
@@ -120,22 +465,112 @@ public class CJWriteIterator<T> {
      * @return data: The csv for the remaining data
      */
     public String remaining() {
-        List<String> rows = new ArrayList<>(totalRows);
-        beans.forEachRemaining(
-                bean ->
-                        rows.add(
-                                cjStructure.getStructure().stream()
-                                        .flatMap(cjColumn -> {
-                                            try {
-                                                return genCJColumnValues(bean, cjColumn);
-                                            } catch (NoSuchFieldException | IllegalAccessException e) {
-                                                throw new CJException(e);
-                                            }
-                                        })
-                                        .collect(Collectors.joining(delimiter))
-                        )
-        );
-        return rows.stream().collect(Collectors.joining(lineSeparator));
+        StringBuilder out = new StringBuilder();
+        try {
+            remainingTo(out);
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Append the csv for the remaining data in
+     * the iterator to the appendable
+     *
+     * @param out: The appendable to append the rows to
+     */
+    public void remainingTo(Appendable out) throws IOException {
+        if (pool != null && spill == null) {
+            remainingToParallel(out);
+            return;
+        }
+
+        long start = metrics == CJMetricsListener.NONE ? 0 : System.nanoTime();
+        CJCharBuffer buffer = buffer();
+        boolean first = true;
+        int rows = 0;
+        while (hasNext()) {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (!first) {
+                buffer.append(lineSeparator);
+            }
+            first = false;
+            appendNextRow(buffer);
+            rows++;
+            if (buffer.length() >= bufferSize) {
+                buffer = flushBuffer(buffer, out, rows);
+                rows = 0;
+            }
+        }
+        this.buffer = flushBuffer(buffer, out, rows);
+        completed(start);
+    }
+
+    /**
+     * Append the csv for the remaining data to the appendable,
+     * rendering chunks of rows on the pool and writing them in order
+     *
+     * @param out: The appendable to append the rows to
+     */
+    private void remainingToParallel(Appendable out) throws IOException {
+        long start = metrics == CJMetricsListener.NONE ? 0 : System.nanoTime();
+        Deque<ForkJoinTask<CJCharBuffer>> pending = new ArrayDeque<>();
+        Deque<Integer> pendingRows = new ArrayDeque<>();
+        Queue<CJCharBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+        int maxPending = pool.getParallelism() * 2;
+        boolean first = true;
+        try {
+            while (beans.hasNext()) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                List<T> chunkBeans = new ArrayList<>(chunkSize);
+                while (chunkBeans.size() < chunkSize && beans.hasNext()) {
+                    chunkBeans.add(beans.next());
+                }
+                boolean leadingSeparator = !first;
+                first = false;
+                pending.add(pool.submit(() -> renderChunk(chunkBeans, leadingSeparator, freeBuffers)));
+                pendingRows.add(chunkBeans.size());
+
+                if (pending.size() >= maxPending) {
+                    freeBuffers.add(flushBuffer(pending.poll().join(), out, pendingRows.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                freeBuffers.add(flushBuffer(pending.poll().join(), out, pendingRows.poll()));
+            }
+            completed(start);
+        } finally {
+            pending.forEach(task -> task.cancel(false));
+        }
+    }
+
+    /**
+     * Render a chunk of rows
+     *
+     * @param chunkBeans:       The beans of the chunk
+     * @param leadingSeparator: Whether to separate the chunk from the previous one
+     * @param freeBuffers:      The buffers of the written chunks to reuse
+     * @return buffer: The rendered rows
+     */
+    private CJCharBuffer renderChunk(List<T> chunkBeans, boolean leadingSeparator,
+                                     Queue<CJCharBuffer> freeBuffers) {
+        CJCharBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            buffer = new CJCharBuffer(bufferSize);
+        }
+        for (T bean : chunkBeans) {
+            if (leadingSeparator) {
+                buffer.append(lineSeparator);
+            }
+            leadingSeparator = true;
+            appendRow(bean, buffer);
+        }
+        return buffer;
     }
 
     /**
@@ -143,7 +578,13 @@ public class CJWriteIterator<T> {
      * the iterator
      */
     public void writeNext() throws IOException {
-        writer.write(next());
+        if (!hasNext()) {
+            throw new CJException(CJExceptionMessages.NO_SUCH_ELT_EXISTS);
+        }
+        CJCharBuffer buffer = buffer();
+        appendNextRow(buffer);
+        buffer.append(lineSeparator);
+        this.buffer = flushBuffer(buffer, writer(), 1);
     }
 
     /**
@@ -153,77 +594,488 @@ public class CJWriteIterator<T> {
      * @return data: The csv for the remaining data
      */
     public String next() {
-        if (!beans.hasNext()) {
+        if (!hasNext()) {
             throw new CJException(CJExceptionMessages.NO_SUCH_ELT_EXISTS);
         }
-        T bean = beans.next();
-        String row = cjStructure.getStructure().stream()
-                .flatMap(cjColumn -> {
-                    try {
-                        return genCJColumnValues(bean, cjColumn);
-                    } catch (NoSuchFieldException | IllegalAccessException e) {
-                        throw new CJException(e);
-                    }
-                })
-                .collect(Collectors.joining(delimiter));
-        return row + lineSeparator;
+        CJCharBuffer buffer = buffer();
+        appendNextRow(buffer);
+        buffer.append(lineSeparator);
+        String row = buffer.toString();
+        buffer.clear();
+        return row;
+    }
+
+    /**
+     * Append the next row, from the beans or the spill file
+     *
+     * @param out: The buffer to append the row to
+     */
+    void appendNextRow(CJCharBuffer out) {
+        if (spill == null) {
+            appendRow(beans.next(), out);
+            return;
+        }
+        String[] cells = spill.next();
+        if (projection != null) {
+            RowCells rowCells = this.rowCells.get();
+            rowCells.clear();
+            for (String cell : cells) {
+                rowCells.chars.append(cell);
+                rowCells.end(cell.equals(nullValue) || cell.equals(String.valueOf((Object) null)));
+            }
+            appendProjected(rowCells, out);
+            return;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            out.append(cells[i]);
+        }
     }
 
+    /**
+     * Append the row of the bean, without the line separator
+     *
+     * @param bean: The object to get the data from
+     * @param out:  The buffer to append the row to
+     */
+    void appendRow(T bean, CJCharBuffer out) {
+        if (projection != null) {
+            appendProjectedRow(bean, out);
+            return;
+        }
+        boolean first = true;
+        for (CJColumn cjColumn : columns) {
+            first = appendCJColumnValues(bean, cjColumn, out, first);
+        }
+    }
 
     /**
-     * Generate the data for a CJColumn
+     * Append the data of a CJColumn
      *
      * @param bean:     The object to get the data from
      * @param cjColumn: The csv column
-     * @return stream: A stream of the result values
-     * @throws NoSuchFieldException:   In case the field doesn't exist in the object
-     * @throws IllegalAccessException: In case the field was private
+     * @param out:      The buffer to append the values to
+     * @param first:    Whether this is the first value in the row
+     * @return boolean: Whether the next value is still the first value in the row
      */
-    private Stream<String> genCJColumnValues(T bean, CJColumn cjColumn)
-            throws NoSuchFieldException, IllegalAccessException {
+    private boolean appendCJColumnValues(T bean, CJColumn cjColumn, CJCharBuffer out, boolean first) {
 
-        Field field = bean.getClass().getDeclaredField(cjColumn.getFieldName());
-        field.setAccessible(true);
-        Object value = field.get(bean);
-        field.setAccessible(false);
+        Object value = cjColumn.getValue(bean);
 
         if (!cjColumn.isCJMap()) {
-            return Stream.of(objectToString(value));
+            if (!first) {
+                out.append(delimiter);
+            }
+            appendValue(cjColumn, value, out);
+            return false;
         }
 
-        if (value == null) {
-            return IntStream.range(0, cjColumn.getMapKeys().size()).mapToObj(obj -> nullValue);
+        for (Object key : cjColumn.getMapKeysArray()) {
+            if (!first) {
+                out.append(delimiter);
+            }
+            first = false;
+            if (value == null) {
+                out.append(nullValue);
+            } else {
+                appendMapValue(cjColumn, ((Map) value).get(key), out);
+            }
+        }
+        if (cjColumn.hasOverflow()) {
+            if (!first) {
+                out.append(delimiter);
+            }
+            first = false;
+            appendMapOverflow(cjColumn, value, out);
         }
-        return cjColumn.getMapKeys()
-                .stream()
-                .map(key ->
-                        String.valueOf(((Map) value).get(key)));
+        return first;
     }
 
     /**
-     * Convert the object to String
+     * Append the overflow cell of a map, its non null entries whose keys are not
+     * columns as key=value pairs separated by the multi values separator.
+     * The pairs are quoted once as a single cell
      *
-     * @param obj: The object to get its representation
-     * @return string: The string representation of the object
+     * @param cjColumn: The csv column of the map
+     * @param value:    The map
+     * @param out:      The buffer to append the cell to
+     * @return boolean: Whether the cell holds pairs, otherwise it is the null value
      */
-    private String objectToString(Object obj) {
-        if (obj == null) {
+    private boolean appendMapOverflow(CJColumn cjColumn, Object value, CJCharBuffer out) {
+        int start = out.length();
+        boolean first = true;
+        if (value != null) {
+            Set<Object> keys = cjColumn.getMapKeys();
+            CJFormatter<Object> formatter = cjColumn.getFormatter();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() == null || keys.contains(entry.getKey()) || cjColumn.isDroppedKey(entry.getKey())) {
+                    continue;
+                }
+                if (!first) {
+                    out.append(multiValuesSeparator);
+                }
+                first = false;
+                out.append(String.valueOf(entry.getKey())).append('=');
+                if (formatter == null) {
+                    ToString.valueOf(entry.getValue(), out);
+                } else {
+                    formatter.format(entry.getValue(), out);
+                }
+            }
+        }
+        if (first) {
+            out.append(nullValue);
+            return false;
+        }
+        quoter.quote(out, start, false);
+        return true;
+    }
+
+    /**
+     * Render the overflow cell of the spilled entries of a map
+     *
+     * @param keys:  The keys of the entries that are not columns
+     * @param cells: The rendered values of the entries
+     * @return string: The overflow cell, the null value when there are no entries
+     */
+    private String overflowCell(List<Object> keys, List<String> cells) {
+        if (keys.isEmpty()) {
             return nullValue;
         }
+        CJCharBuffer out = new CJCharBuffer(64);
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                out.append(multiValuesSeparator);
+            }
+            out.append(String.valueOf(keys.get(i))).append('=');
+            char[] cell = cells.get(i).toCharArray();
+            quoter.unwrap(cell, 0, cell.length, out);
+        }
+        quoter.quote(out, 0, false);
+        return out.toString();
+    }
+
+    /**
+     * Append the row of the bean in the projected order
+     *
+     * @param bean: The object to get the data from
+     * @param out:  The buffer to append the row to
+     */
+    private void appendProjectedRow(T bean, CJCharBuffer out) {
+        RowCells cells = rowCells.get();
+        cells.clear();
+        for (CJColumn cjColumn : columns) {
+            Object value = cjColumn.getValue(bean);
+            if (!cjColumn.isCJMap()) {
+                appendValue(cjColumn, value, cells.chars);
+                cells.end(value == null);
+                continue;
+            }
+            for (Object key : cjColumn.getMapKeysArray()) {
+                if (value == null) {
+                    cells.chars.append(nullValue);
+                    cells.end(true);
+                } else {
+                    Object mapValue = ((Map) value).get(key);
+                    appendMapValue(cjColumn, mapValue, cells.chars);
+                    cells.end(mapValue == null);
+                }
+            }
+            if (cjColumn.hasOverflow()) {
+                cells.end(!appendMapOverflow(cjColumn, value, cells.chars));
+            }
+        }
+        appendProjected(cells, out);
+    }
+
+    /**
+     * Append the rendered cells of a row in the projected order
+     *
+     * @param cells: The rendered cells of the row
+     * @param out:   The buffer to append the row to
+     */
+    private void appendProjected(RowCells cells, CJCharBuffer out) {
+        char[] chars = cells.chars.array();
+        for (int i = 0; i < projection.length; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            int source = projection[i];
+            if (source >= 0) {
+                int start = cells.start(source);
+                out.append(chars, start, cells.ends[source] - start);
+            } else if (source == OVERFLOW) {
+                appendOverflow(cells, out);
+            } else {
+                out.append(nullValue);
+            }
+        }
+    }
+
+    /**
+     * Append the non null overflow cells as name=value pairs, separated by
+     * the multi values separator, or the null value when they are all null.
+     * The pairs are quoted once as a single cell
+     *
+     * @param cells: The rendered cells of the row
+     * @param out:   The buffer to append the overflow cell to
+     */
+    private void appendOverflow(RowCells cells, CJCharBuffer out) {
+        int start = out.length();
+        boolean first = true;
+        for (int i = 0; i < overflowSources.length; i++) {
+            int source = overflowSources[i];
+            if (cells.nulls[source]) {
+                continue;
+            }
+            if (!first) {
+                out.append(multiValuesSeparator);
+            }
+            first = false;
+            out.append(overflowNames[i]).append('=');
+            quoter.unwrap(cells.chars.array(), cells.start(source), cells.ends[source], out);
+        }
+        if (first) {
+            out.append(nullValue);
+            return;
+        }
+        quoter.quote(out, start, false);
+    }
+
+    /**
+     * Hand the buffered chars to the appendable and clear the buffer
+     *
+     * @param buffer: The buffer of rendered rows
+     * @param out:    The appendable to hand the chars to
+     * @param rows:   The number of the rows in the buffer
+     * @return buffer: The cleared buffer, or an empty one when the
+     *                 buffer is handed to the I/O thread in async mode
+     */
+    private CJCharBuffer flushBuffer(CJCharBuffer buffer, Appendable out, int rows) throws IOException {
+        int chars = buffer.length();
+        if (chars == 0) {
+            return buffer;
+        }
+        rowsWritten += rows;
+        charsWritten += chars;
+        if (metrics == CJMetricsListener.NONE) {
+            return handOff(buffer, out);
+        }
+        long start = System.nanoTime();
+        buffer = handOff(buffer, out);
+        long flushNanos = System.nanoTime() - start;
+        metrics.flushed(rows, chars, flushNanos);
+        metrics.progress(rowsWritten, totalRows);
+        return buffer;
+    }
+
+    /**
+     * Hand the buffered chars to the appendable
+     *
+     * @param buffer: The buffer of rendered rows
+     * @param out:    The appendable to hand the chars to
+     * @return buffer: An empty buffer to render to
+     */
+    private CJCharBuffer handOff(CJCharBuffer buffer, Appendable out) throws IOException {
+        if (out instanceof CJAsyncWriter) {
+            return ((CJAsyncWriter) out).handOff(buffer);
+        }
+        buffer.appendTo(out);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Report the written rows once the remaining rows are written
+     *
+     * @param start: The time the rows started to be written
+     */
+    private void completed(long start) {
+        if (metrics != CJMetricsListener.NONE) {
+            for (CJColumn cjColumn : columns) {
+                CJValueCache cache = cjColumn.getCache();
+                if (cache != null) {
+                    metrics.valueCache(cjColumn.isCJMap() ? cjColumn.getFieldName() : cjColumn.getCjName(),
+                            cache.getHits(), cache.getMisses(), cache.size());
+                }
+            }
+            metrics.completed(rowsWritten, charsWritten, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Get the reusable buffer of the iterator
+     */
+    private CJCharBuffer buffer() {
+        if (buffer == null) {
+            buffer = new CJCharBuffer(bufferSize);
+        }
+        return buffer;
+    }
+
+    /**
+     * Render a value as a standalone cell
+     *
+     * @param cjColumn: The csv column of the value
+     * @param obj:      The object to render
+     * @return string: The rendered cell
+     */
+    private String cell(CJColumn cjColumn, Object obj) {
+        if (cellBuffer == null) {
+            cellBuffer = new CJCharBuffer(64);
+        }
+        cellBuffer.clear();
+        appendValue(cjColumn, obj, cellBuffer);
+        return cellBuffer.toString();
+    }
+
+    /**
+     * Render a map value as a standalone cell
+     *
+     * @param cjColumn: The csv column of the map
+     * @param obj:      The object to render
+     * @return string: The rendered cell
+     */
+    private String mapCell(CJColumn cjColumn, Object obj) {
+        if (cellBuffer == null) {
+            cellBuffer = new CJCharBuffer(64);
+        }
+        cellBuffer.clear();
+        appendMapValue(cjColumn, obj, cellBuffer);
+        return cellBuffer.toString();
+    }
+
+    /**
+     * Append the representation of a map value, quoted when needed
+     *
+     * @param cjColumn: The csv column of the map
+     * @param obj:      The map value to get its representation
+     * @param out:      The buffer to append the representation to
+     */
+    private void appendMapValue(CJColumn cjColumn, Object obj, CJCharBuffer out) {
+        CJValueCache cache = cjColumn.getCache();
+        if (cache != null && obj != null && appendCached(cache, obj, out)) {
+            return;
+        }
+        int start = out.length();
+        CJFormatter<Object> formatter = cjColumn.getFormatter();
+        if (obj == null || formatter == null) {
+            ToString.valueOf(obj, out);
+        } else {
+            formatter.format(obj, out);
+        }
+        if (obj != null) {
+            quoter.quote(out, start, obj instanceof Number);
+            if (cache != null) {
+                cache.put(obj, Arrays.copyOfRange(out.array(), start, out.length()));
+            }
+        }
+    }
+
+    /**
+     * Append the representation of the object, quoted when needed
+     *
+     * @param cjColumn: The csv column of the value
+     * @param obj:      The object to get its representation
+     * @param out:      The buffer to append the representation to
+     */
+    private void appendValue(CJColumn cjColumn, Object obj, CJCharBuffer out) {
+        if (obj == null) {
+            out.append(nullValue);
+            return;
+        }
+        CJValueCache cache = cjColumn.getCache();
+        if (cache != null && appendCached(cache, obj, out)) {
+            return;
+        }
+        int start = out.length();
+        CJFormatter<Object> formatter = cjColumn.getFormatter();
+        if (formatter == null) {
+            appendRawValue(obj, out);
+        } else {
+            formatter.format(obj, out);
+        }
+        quoter.quote(out, start, obj instanceof Number);
+        if (cache != null) {
+            cache.put(obj, Arrays.copyOfRange(out.array(), start, out.length()));
+        }
+    }
+
+    /**
+     * Append the cached cell of the value
+     *
+     * @param cache: The cache of the column
+     * @param obj:   The non null value
+     * @param out:   The buffer to append the cell to
+     * @return boolean: Whether the cell was cached
+     */
+    private static boolean appendCached(CJValueCache cache, Object obj, CJCharBuffer out) {
+        char[] cell = cache.get(obj);
+        if (cell == null) {
+            return false;
+        }
+        out.append(cell, 0, cell.length);
+        return true;
+    }
+
+    /**
+     * Append the representation of the object
+     *
+     * @param obj: The object to get its representation
+     * @param out: The buffer to append the representation to
+     */
+    private void appendRawValue(Object obj, CJCharBuffer out) {
         if (obj.getClass().isArray()) {
-            return ToString.arrayToString((Object[]) obj, multiValuesSeparator, nullValue);
+            ToString.arrayToString((Object[]) obj, multiValuesSeparator, nullValue, out);
+            return;
         }
 
         if (obj instanceof Collection) {
-            return ToString.collectionToString((Collection) obj, multiValuesSeparator, nullValue);
+            ToString.collectionToString((Collection) obj, multiValuesSeparator, nullValue, out);
+            return;
         }
 
         if (obj instanceof Map) {
-            return ToString.MapToString((Map) obj, multiValuesSeparator, nullValue);
+            ToString.MapToString((Map) obj, multiValuesSeparator, nullValue, out);
+            return;
         }
 
-        return String.valueOf(obj);
+        ToString.valueOf(obj, out);
     }
 
+    /**
+     * The cells of a row rendered before they are projected, one per rendering thread
+     */
+    private static final class RowCells {
+        private final CJCharBuffer chars = new CJCharBuffer(256);
+        private final int[] ends;
+        private final boolean[] nulls;
+        private int size;
 
+        RowCells(int cells) {
+            this.ends = new int[cells];
+            this.nulls = new boolean[cells];
+        }
+
+        void clear() {
+            chars.clear();
+            size = 0;
+        }
+
+        /**
+         * End the cell rendered last
+         *
+         * @param isNull: Whether the value of the cell is null
+         */
+        void end(boolean isNull) {
+            ends[size] = chars.length();
+            nulls[size++] = isNull;
+        }
+
+        int start(int cell) {
+            return cell == 0 ? 0 : ends[cell - 1];
+        }
+    }
 }
@@ -4,8 +4,21 @@ import org.csv4j.exception.CJException;
 import org.csv4j.exception.CJExceptionMessages;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
-import java.util.Collection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * A CSV generator/writer class
@@ -18,6 +31,7 @@ import java.util.Collection;
 public class CJWriter<T> {
 
     private Class clazz;
+    private CJSchema schema;
     private Collection<T> beans;
     private Writer writer;
     private String delimiter = ",";
@@ -25,6 +39,27 @@ public class CJWriter<T> {
     private String nullValue = "null";
     private String multiValuesSeparator = ";";
     private Boolean includeHeader = true;
+    private int bufferSize = CJWriteIterator.DEFAULT_BUFFER_SIZE;
+    private Boolean singlePass = false;
+    private Path spillDirectory;
+    private int spillBufferSize = 65536;
+    private Boolean deleteSpill = true;
+    private ForkJoinPool pool;
+    private int chunkSize = CJWriteIterator.DEFAULT_CHUNK_SIZE;
+    private CJQuoteMode quoteMode = CJQuoteMode.NONE;
+    private char quoteChar = '"';
+    private Character escapeChar;
+    private CJMetricsListener metrics = CJMetricsListener.NONE;
+    private int gzipBlockSize = CJGzipChannel.DEFAULT_BLOCK_SIZE;
+    private int gzipThreads;
+    private long splitRows;
+    private long splitBytes;
+    private int asyncBuffers;
+    private Executor executor;
+    private CJAppendMode appendMode = CJAppendMode.WIDEN;
+    private String overflowColumn = "_overflow";
+    private CJProjection projection;
+    private final CJFormatters formatters = new CJFormatters();
 
     /**
      * Args Constructor
@@ -35,6 +70,21 @@ public class CJWriter<T> {
         this.clazz = clazz;
     }
 
+    /**
+     * Args Constructor, the rows are `Object[]` or `Map`
+     *
+     * @param schema: The columns of the rows
+     */
+    public CJWriter(CJSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * Constructor of the bean-free exports, the `CJTable` ones
+     */
+    public CJWriter() {
+    }
+
     /**
      * The columns' delimiter -> default ","
      */
@@ -83,6 +133,228 @@ public class CJWriter<T> {
         return this;
     }
 
+    /**
+     * The number of chars buffered before they are handed
+     * to the writer -> default 8192
+     */
+    public CJWriter<T> bufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Consume iterator and stream sources only once -> default false
+     *
+     * A model with dynamic maps needs all the keys before the header.
+     * In single pass mode the rendered rows are spilled to a temporary
+     * file while the keys are collected, then replayed after the header,
+     * instead of buffering the beans in memory
+     */
+    public CJWriter<T> singlePass(Boolean singlePass) {
+        this.singlePass = singlePass;
+        return this;
+    }
+
+    /**
+     * The directory of the single pass spill files -> default the system temp directory
+     */
+    public CJWriter<T> spillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * The buffer size in bytes of the single pass spill files -> default 65536
+     */
+    public CJWriter<T> spillBufferSize(int spillBufferSize) {
+        this.spillBufferSize = spillBufferSize;
+        return this;
+    }
+
+    /**
+     * Delete the single pass spill files once the rows are replayed -> default true
+     */
+    public CJWriter<T> deleteSpill(Boolean deleteSpill) {
+        this.deleteSpill = deleteSpill;
+        return this;
+    }
+
+    /**
+     * Render the rows in parallel on the pool -> default null, sequential
+     *
+     * The rows are still written in their original order
+     */
+    public CJWriter<T> parallel(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * The number of rows rendered by each task in parallel mode -> default 1024
+     */
+    public CJWriter<T> chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Which cells and header names are quoted -> default NONE, written raw
+     *
+     * MINIMAL quotes the cells holding the delimiter, the line separator,
+     * a quote or a line break as in RFC 4180
+     */
+    public CJWriter<T> quoteMode(CJQuoteMode quoteMode) {
+        this.quoteMode = quoteMode;
+        return this;
+    }
+
+    /**
+     * The char wrapping the quoted cells -> default '"'
+     */
+    public CJWriter<T> quoteChar(char quoteChar) {
+        this.quoteChar = quoteChar;
+        return this;
+    }
+
+    /**
+     * The char escaping the quotes in the quoted cells -> default the quote char, doubling the quotes
+     */
+    public CJWriter<T> escapeChar(char escapeChar) {
+        this.escapeChar = escapeChar;
+        return this;
+    }
+
+    /**
+     * The formatter of the values of the type and its subtypes -> default
+     * none, `toString` and the collections representation
+     *
+     * The formatter of each column is resolved once per export from its field
+     * type, a field annotated with `CJFormat` keeps its own formatter.
+     * The values of maps, and of fields declared with a wider type,
+     * are formatted by their class
+     *
+     * @param type:      The type of the values
+     * @param formatter: The formatter appending the values to the row buffer
+     */
+    public <V> CJWriter<T> formatter(Class<V> type, CJFormatter<? super V> formatter) {
+        this.formatters.register(type, formatter);
+        return this;
+    }
+
+    /**
+     * Compress the csv written to the byte sinks, OutputStream, channel or file,
+     * as gzip -> default off
+     *
+     * The bytes are split into blocks compressed concurrently to independent
+     * gzip members, written in order as a stream read by `gunzip`. The blocks
+     * are compressed on the `parallel` pool, or on the common pool
+     *
+     * @param blockSize: The size of the uncompressed blocks
+     * @param threads:   The number of the blocks compressed at once, 0 is off
+     */
+    public CJWriter<T> gzip(int blockSize, int threads) {
+        this.gzipBlockSize = blockSize;
+        this.gzipThreads = threads;
+        return this;
+    }
+
+    /**
+     * Compress the csv written to the byte sinks as gzip, on all the cores
+     */
+    public CJWriter<T> gzip() {
+        return gzip(CJGzipChannel.DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Write to the writer on a dedicated I/O thread -> default 0, off
+     *
+     * The rows are rendered to pooled buffers handed to the I/O thread
+     * through a ring of `buffers` buffers, so rendering and writing overlap.
+     * `writeCSV` waits for the I/O thread and throws its failures
+     *
+     * @param buffers: The number of the buffers in the ring, 0 is off
+     */
+    public CJWriter<T> async(int buffers) {
+        this.asyncBuffers = buffers;
+        return this;
+    }
+
+    /**
+     * The executor of the `writeCSVAsync` exports -> default a virtual
+     * thread per export when the runtime supports them, otherwise
+     * a cached pool of daemon threads
+     */
+    public CJWriter<T> executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * The caps of the parts written by `writeCSVParts` -> default unlimited
+     *
+     * @param maxRows:  The max number of the rows in a part, 0 is unlimited
+     * @param maxBytes: The max number of the uncompressed bytes in a part, 0 is unlimited.
+     *                  A single row larger than the cap is written to its own part
+     */
+    public CJWriter<T> split(long maxRows, long maxBytes) {
+        this.splitRows = maxRows;
+        this.splitBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Write only these columns, in this order -> default all the columns
+     *
+     * The names are the header names or the field names. A map field name selects
+     * all its keys, a key name only its column. The other columns are never read
+     * nor rendered, and the dynamic maps without selected keys are not scanned.
+     * A name matching no column nor map key once the keys are found, or a selection
+     * leaving no column, throws a CJException
+     *
+     * @param names: The names of the columns
+     */
+    public CJWriter<T> columns(String... names) {
+        this.projection = CJProjection.columns(names);
+        return this;
+    }
+
+    /**
+     * Write all the columns except these, named like in `columns`
+     *
+     * @param names: The names of the columns
+     */
+    public CJWriter<T> exclude(String... names) {
+        this.projection = CJProjection.exclude(names);
+        return this;
+    }
+
+    /**
+     * How `appendCSV` reconciles the new columns missing from the header of the file -> default WIDEN
+     */
+    public CJWriter<T> appendMode(CJAppendMode appendMode) {
+        this.appendMode = appendMode;
+        return this;
+    }
+
+    /**
+     * The name of the column holding the new columns in OVERFLOW append mode -> default "_overflow"
+     */
+    public CJWriter<T> overflowColumn(String overflowColumn) {
+        this.overflowColumn = overflowColumn;
+        return this;
+    }
+
+    /**
+     * The listener of the exports metrics -> default NONE
+     *
+     * It receives the structure build and map scan times, the flushed
+     * rows and chars and the progress, never a callback per row
+     */
+    public CJWriter<T> metrics(CJMetricsListener metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * A collection of the data
      */
@@ -97,31 +369,178 @@ public class CJWriter<T> {
      * @param beans: A collection of data
      */
     public CJWriteIterator<T> cjWriteIterator(Collection<T> beans) {
+        return cjWriteIterator(null, beans);
+    }
+
+    /**
+     * Get the CJWriterIterator
+     *
+     * @param writer: A java writer
+     * @param beans:  A collection of data
+     */
+    public CJWriteIterator<T> cjWriteIterator(Writer writer, Collection<T> beans) {
 
         if (beans == null) {
             throw new CJException(CJExceptionMessages.DATA_NOT_SET);
         }
 
-        CJStructure<T> cjStructure = new CJStructure<>(beans, clazz);
-        return new CJWriteIterator<T>(
-                cjStructure, beans, delimiter, lineSeparator, nullValue, multiValuesSeparator);
+        return cjWriteIterator(writer, beans, beans.iterator(), beans.size());
+    }
+
+    /**
+     * Get the CJWriterIterator
+     *
+     * @param beans: An iterator of data, it is consumed lazily
+     *               unless the model has dynamic maps
+     */
+    public CJWriteIterator<T> cjWriteIterator(Iterator<T> beans) {
+        return cjWriteIterator(null, beans);
     }
 
     /**
      * Get the CJWriterIterator
      *
+     * The beans are pulled from the iterator as the rows are written.
+     * A model with dynamic maps needs all the keys before the header,
+     * so its beans are buffered first, or spilled to a temporary file
+     * in single pass mode. When every dynamic map has a `scanLimit`
+     * only the scanned beans are buffered
+     *
      * @param writer: A java writer
-     * @param beans:  A collection of data
+     * @param beans:  An iterator of data
      */
-    public CJWriteIterator<T> cjWriteIterator(Writer writer, Collection<T> beans) {
+    public CJWriteIterator<T> cjWriteIterator(Writer writer, Iterator<T> beans) {
 
         if (beans == null) {
             throw new CJException(CJExceptionMessages.DATA_NOT_SET);
         }
 
-        CJStructure<T> cjStructure = new CJStructure<>(beans, clazz);
-        return new CJWriteIterator<T>(
-                cjStructure, beans, delimiter, lineSeparator, nullValue, multiValuesSeparator, writer);
+        if (!CJStructure.beansScanNeeded(plan())) {
+            return cjWriteIterator(writer, Collections.<T>emptyList(), beans, null);
+        }
+
+        long scanLimit = CJStructure.scanLimit(plan());
+        if (scanLimit > 0) {
+            List<T> scanned = new ArrayList<>();
+            while (scanned.size() < scanLimit && beans.hasNext()) {
+                scanned.add(beans.next());
+            }
+            return cjWriteIterator(writer, scanned, concat(scanned.iterator(), beans), null);
+        }
+
+        if (singlePass) {
+            CJWriteIterator<T> cjWriteIterator = cjWriteIterator(writer, null, Collections.<T>emptyIterator(), 0);
+            long start = System.nanoTime();
+            cjWriteIterator.spill(beans, spillDirectory, spillBufferSize, deleteSpill);
+            structureBuilt(cjWriteIterator.getCJStructure(), System.nanoTime() - start);
+            return project(cjWriteIterator);
+        }
+
+        List<T> buffered = new ArrayList<>();
+        beans.forEachRemaining(buffered::add);
+        return cjWriteIterator(writer, buffered, buffered.iterator(), buffered.size());
+    }
+
+    /**
+     * Chain the iterators
+     */
+    private static <E> Iterator<E> concat(Iterator<E> first, Iterator<E> second) {
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || second.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return first.hasNext() ? first.next() : second.next();
+            }
+        };
+    }
+
+    /**
+     * Get the CJWriterIterator of a collection or of an iterable, iterated once
+     *
+     * @param writer: A java writer
+     * @param beans:  The iterable of data
+     */
+    private CJWriteIterator<T> iterableWriteIterator(Writer writer, Iterable<T> beans) {
+        if (beans instanceof Collection) {
+            return cjWriteIterator(writer, (Collection<T>) beans);
+        }
+        return cjWriteIterator(writer, beans == null ? null : beans.iterator());
+    }
+
+    /**
+     * Build the structure and the CJWriterIterator
+     *
+     * @param writer:    A java writer
+     * @param scan:      The data to scan for dynamic map keys,
+     *                   null when the keys are set later
+     * @param beans:     The data to write
+     * @param totalRows: The number of rows, null when unknown
+     */
+    private CJWriteIterator<T> cjWriteIterator(Writer writer, Iterable<T> scan, Iterator<T> beans,
+                                               Integer totalRows) {
+        CJStructure<T> cjStructure = new CJStructure<>(scan, plan(), projection);
+        if (scan != null) {
+            structureBuilt(cjStructure, 0);
+        }
+        CJWriteIterator<T> cjWriteIterator = new CJWriteIterator<T>(
+                cjStructure, beans, totalRows, delimiter, lineSeparator, nullValue, multiValuesSeparator, writer)
+                .bufferSize(bufferSize)
+                .parallel(pool, chunkSize)
+                .quoting(quoteMode, quoteChar, escapeChar == null ? quoteChar : escapeChar)
+                .formatters(formatters)
+                .metrics(metrics)
+                .async(asyncBuffers);
+        return scan == null ? cjWriteIterator : project(cjWriteIterator);
+    }
+
+    /**
+     * Check the selected columns once the maps keys are found, then reorder
+     * their cells when the selection interleaves keys of maps with other columns
+     *
+     * @param cjWriteIterator: The iterator of the structure with its final keys
+     */
+    private CJWriteIterator<T> project(CJWriteIterator<T> cjWriteIterator) {
+        if (projection != null) {
+            projection.check(compiledPlan(), cjWriteIterator.getCJStructure().getStructure());
+            int[] cells = projection.cells(cjWriteIterator.getCJStructure().getStructure());
+            if (cells != null) {
+                cjWriteIterator.project(cells, new int[0]);
+            }
+        }
+        return cjWriteIterator;
+    }
+
+    /**
+     * Get the compiled columns, of the schema or of the model class,
+     * pruned to the selected columns
+     */
+    private List<CJColumn> plan() {
+        List<CJColumn> plan = compiledPlan();
+        return projection == null ? plan : projection.plan(plan);
+    }
+
+    /**
+     * Get the compiled columns, of the schema or of the model class
+     */
+    private List<CJColumn> compiledPlan() {
+        return schema != null ? schema.getColumns() : CJStructure.plan(clazz);
+    }
+
+    /**
+     * Report the built structure to the metrics listener
+     *
+     * @param cjStructure: The built structure
+     * @param spillNanos:  The time to spill the beans in single pass mode
+     */
+    private void structureBuilt(CJStructure<T> cjStructure, long spillNanos) {
+        if (metrics != CJMetricsListener.NONE) {
+            metrics.structureBuilt(clazz, cjStructure.getBuildNanos() + spillNanos,
+                    cjStructure.getMapScanNanos() + spillNanos, cjStructure.getDynamicColumnsLength());
+        }
     }
 
     /**
@@ -156,17 +575,123 @@ public class CJWriter<T> {
             throw new CJException(CJExceptionMessages.DATA_NOT_SET);
         }
 
-        CJStructure<T> cjStructure = new CJStructure<>(beans, clazz);
-        CJWriteIterator cjWriteIterator = new CJWriteIterator<T>(
-                cjStructure, beans, delimiter, lineSeparator, nullValue, multiValuesSeparator);
+        return csv(cjWriteIterator(beans), includeHeader);
+    }
 
-        String csv = "";
-        if (includeHeader) {
-            csv = cjWriteIterator.header();
+    /**
+     * Generate CSV for this iterable, it is iterated once
+     *
+     * @param beans: The iterable of data
+     * @return string: The generated csv as string
+     */
+    public String csv(Iterable<T> beans) {
+        if (beans instanceof Collection) {
+            return csv((Collection<T>) beans);
+        }
+        return csv(beans == null ? null : beans.iterator());
+    }
+
+    /**
+     * Generate CSV for this stream
+     *
+     * @param beans: The stream of data
+     * @return string: The generated csv as string
+     */
+    public String csv(Stream<T> beans) {
+        return csv(beans == null ? null : beans.iterator());
+    }
+
+    /**
+     * Generate CSV for this iterator
+     *
+     * @param beans: The iterator of data
+     * @return string: The generated csv as string
+     */
+    public String csv(Iterator<T> beans) {
+        return csv(cjWriteIterator(beans), includeHeader);
+    }
+
+    /**
+     * Generate CSV from the CJWriterIterator
+     *
+     * @param cjWriteIterator: The iterator to generate the csv from
+     * @param includeHeader:   Whether to include the header or not
+     * @return string: The generated csv as string
+     */
+    private String csv(CJWriteIterator<T> cjWriteIterator, Boolean includeHeader) {
+        StringBuilder csv = new StringBuilder();
+        try {
+            csvTo(csv, cjWriteIterator, includeHeader);
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Generate CSV given the defined beans to the appendable
+     *
+     * @param out: The appendable to append the csv to
+     */
+    public void csvTo(Appendable out) throws IOException {
+        csvTo(out, beans, includeHeader);
+    }
+
+    /**
+     * Generate CSV for this collection to the appendable
+     *
+     * @param out:   The appendable to append the csv to
+     * @param beans: The collection of data
+     */
+    public void csvTo(Appendable out, Collection<T> beans) throws IOException {
+        csvTo(out, beans, includeHeader);
+    }
+
+    /**
+     * Generate CSV for the beans to the appendable
+     *
+     * @param out:           The appendable to append the csv to
+     * @param beans:         The collection of data
+     * @param includeHeader: Whether to include the header or not
+     */
+    public void csvTo(Appendable out, Collection<T> beans, Boolean includeHeader) throws IOException {
+
+        if (beans == null) {
+            throw new CJException(CJExceptionMessages.DATA_NOT_SET);
         }
 
-        csv += cjWriteIterator.remaining();
-        return csv;
+        csvTo(out, cjWriteIterator(beans), includeHeader);
+    }
+
+    /**
+     * Generate CSV for this iterator to the appendable
+     *
+     * @param out:   The appendable to append the csv to
+     * @param beans: The iterator of data
+     */
+    public void csvTo(Appendable out, Iterator<T> beans) throws IOException {
+        csvTo(out, cjWriteIterator(beans), includeHeader);
+    }
+
+    /**
+     * Generate CSV from the CJWriterIterator to the appendable
+     *
+     * @param out:             The appendable to append the csv to
+     * @param cjWriteIterator: The iterator to generate the csv from
+     * @param includeHeader:   Whether to include the header or not
+     */
+    private void csvTo(Appendable out, CJWriteIterator<T> cjWriteIterator, Boolean includeHeader)
+            throws IOException {
+
+        try {
+            if (includeHeader) {
+                out.append(cjWriteIterator.header());
+            }
+
+            cjWriteIterator.remainingTo(out);
+        } finally {
+            cjWriteIterator.close();
+        }
     }
 
     /**
@@ -221,15 +746,454 @@ public class CJWriter<T> {
             throw new CJException(CJExceptionMessages.DATA_NOT_SET);
         }
 
-        CJStructure<T> cjStructure = new CJStructure<>(beans, clazz);
-        CJWriteIterator cjWriteIterator = new CJWriteIterator<T>(
-                cjStructure, beans, delimiter, lineSeparator, nullValue, multiValuesSeparator, writer);
+        writeCSV(cjWriteIterator(writer, beans), includeHeader);
+    }
+
+    /**
+     * Generate CSV for this iterable, it is iterated once
+     *
+     * @param writer: The writer
+     * @param beans:  The iterable of data
+     */
+    public void writeCSV(Writer writer, Iterable<T> beans) throws IOException {
+        if (beans instanceof Collection) {
+            writeCSV(writer, (Collection<T>) beans, includeHeader);
+            return;
+        }
+        writeCSV(writer, beans == null ? null : beans.iterator(), includeHeader);
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to the stream, gzip compressed when set
+     * The stream is flushed but not closed
+     *
+     * @param out:   The output stream
+     * @param beans: The iterable of data, `stream::iterator` for a stream
+     */
+    public void writeCSV(OutputStream out, Iterable<T> beans) throws IOException {
+        if (out == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        writeCSV(Channels.newChannel(out), beans);
+        out.flush();
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to the channel, gzip compressed when set
+     * The channel is not closed
+     *
+     * @param channel: The byte channel
+     * @param beans:   The iterable of data, `stream::iterator` for a stream
+     */
+    public void writeCSV(WritableByteChannel channel, Iterable<T> beans) throws IOException {
+        if (channel == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        try (CJByteWriter cjByteWriter = byteWriter(channel)) {
+            writeCSV(cjByteWriter, beans);
+        }
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to the file, gzip compressed when set
+     * The file is created or truncated
+     *
+     * @param path:  The file path
+     * @param beans: The iterable of data, `stream::iterator` for a stream
+     */
+    public void writeCSV(Path path, Iterable<T> beans) throws IOException {
+        if (path == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeCSV(channel, beans);
+        }
+    }
+
+    /**
+     * Get the UTF-8 writer of the channel, compressing
+     * the bytes when gzip is on. The channel is not closed
+     *
+     * @param channel: The byte channel
+     * @return writer: The writer of the channel
+     */
+    CJByteWriter byteWriter(WritableByteChannel channel) {
+        if (gzipThreads > 0) {
+            return new CJByteWriter(new CJGzipChannel(channel, false, gzipBlockSize,
+                    pool == null ? ForkJoinPool.commonPool() : pool, gzipThreads),
+                    true, CJByteWriter.DEFAULT_BUFFER_SIZE).metrics(metrics);
+        }
+        return new CJByteWriter(channel, false, CJByteWriter.DEFAULT_BUFFER_SIZE).metrics(metrics);
+    }
+
+    /**
+     * Append the CSV as UTF-8 bytes to the file, a missing or empty file is written with the header
+     *
+     * The rows are aligned to the header of the file, its columns missing from
+     * the rows are padded with the null value. The new columns, like new keys of
+     * the dynamic maps, widen the header or go to the overflow column as set by
+     * `appendMode`. While the header is kept only the end of the file is written,
+     * otherwise the file is copied once with the new header and moved over.
+     * The file must be written with the same delimiter, line separator and quote chars
+     *
+     * @param path:  The file path
+     * @param beans: The iterable of data, `stream::iterator` for a stream
+     */
+    public void appendCSV(Path path, Iterable<T> beans) throws IOException {
+        if (path == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        if (gzipThreads > 0) {
+            throw new CJException(CJExceptionMessages.APPEND_GZIP);
+        }
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            writeCSV(path, beans);
+            return;
+        }
+        new CJAppender<>(this, iterableWriteIterator(null, beans), appendMode, overflowColumn, quoter(),
+                delimiter, lineSeparator, nullValue, quoteChar, escapeChar == null ? quoteChar : escapeChar,
+                bufferSize).append(path, includeHeader);
+    }
+
+    /**
+     * Get the quoter of the cells and the header names
+     */
+    private CJQuoter quoter() {
+        return new CJQuoter(quoteMode, quoteChar, escapeChar == null ? quoteChar : escapeChar,
+                delimiter, lineSeparator);
+    }
+
+    /**
+     * Generate CSV for the table
+     *
+     * @param table: The table of data
+     * @return string: The generated csv as string
+     */
+    public String csv(CJTable table) {
+        StringBuilder csv = new StringBuilder();
+        try {
+            writeCSV(csv, table);
+        } catch (IOException e) {
+            throw new CJException(e);
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Generate CSV for the table
+     * The rows are rendered straight from the table columns
+     *
+     * @param writer: The writer
+     * @param table:  The table of data
+     */
+    public void writeCSV(Writer writer, CJTable table) throws IOException {
+        if (writer == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        writeCSV((Appendable) writer, table);
+        writer.flush();
+    }
+
+    /**
+     * Generate CSV for the table as UTF-8 bytes to the file, gzip compressed when set
+     * The file is created or truncated
+     *
+     * @param path:  The file path
+     * @param table: The table of data
+     */
+    public void writeCSV(Path path, CJTable table) throws IOException {
+        if (path == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             CJByteWriter cjByteWriter = byteWriter(channel)) {
+            writeCSV(cjByteWriter, table);
+        }
+    }
 
+    /**
+     * Append the CSV of the table to the appendable
+     *
+     * @param out:   The appendable to append the csv to
+     * @param table: The table of data
+     */
+    private void writeCSV(Appendable out, CJTable table) throws IOException {
+        if (table == null) {
+            throw new CJException(CJExceptionMessages.DATA_NOT_SET);
+        }
+        CJTableWriter cjTableWriter = new CJTableWriter(table, delimiter, lineSeparator, nullValue, quoter(),
+                bufferSize, metrics);
         if (includeHeader) {
-            cjWriteIterator.writeHeader();
+            out.append(cjTableWriter.header());
+        }
+        cjTableWriter.rowsTo(out);
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to part files, rolling to the next
+     * part at the `split` caps. Each part starts with the header
+     * The parts are written concurrently when a `parallel` pool is set
+     * and the parts are only capped by rows
+     *
+     * @param pattern: The `String.format` pattern of the part files, given the
+     *                 part index from 1, like "data-%03d.csv"
+     * @param beans:   The iterable of data, `stream::iterator` for a stream
+     * @return parts: The written parts in order
+     */
+    public List<CJPart> writeCSVParts(String pattern, Iterable<T> beans) throws IOException {
+        if (pattern == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        if (String.format(pattern, 1).equals(String.format(pattern, 2))) {
+            throw new CJException(CJExceptionMessages.INVALID_PARTS_PATTERN);
+        }
+        CJWriteIterator<T> cjWriteIterator = iterableWriteIterator(null, beans);
+        return new CJSplitWriter<>(this, cjWriteIterator, pattern, splitRows, splitBytes,
+                includeHeader ? cjWriteIterator.header() : "", lineSeparator, bufferSize).write();
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to part files, then write
+     * the manifest of the parts as csv: file, rows and bytes.
+     * The manifest cells are always quoted when needed, whatever the quote mode
+     *
+     * @param pattern:  The `String.format` pattern of the part files, given the part index from 1
+     * @param manifest: The manifest file
+     * @param beans:    The iterable of data, `stream::iterator` for a stream
+     * @return parts: The written parts in order
+     */
+    public List<CJPart> writeCSVParts(String pattern, Path manifest, Iterable<T> beans) throws IOException {
+        List<CJPart> parts = writeCSVParts(pattern, beans);
+        new CJWriter<CJPart>(CJPart.class)
+                .delimiter(delimiter)
+                .lineSeparator(lineSeparator)
+                .quoteMode(CJQuoteMode.MINIMAL)
+                .quoteChar(quoteChar)
+                .writeCSV(manifest, parts);
+        return parts;
+    }
+
+    /**
+     * Generate CSV for this stream
+     * The stream is not closed, it is owned by the caller
+     *
+     * @param writer: The writer
+     * @param beans:  The stream of data
+     */
+    public void writeCSV(Writer writer, Stream<T> beans) throws IOException {
+        writeCSV(writer, beans == null ? null : beans.iterator(), includeHeader);
+    }
+
+    /**
+     * Generate CSV for this iterator
+     *
+     * @param writer: The writer
+     * @param beans:  The iterator of data
+     */
+    public void writeCSV(Writer writer, Iterator<T> beans) throws IOException {
+        writeCSV(writer, beans, includeHeader);
+    }
+
+    /**
+     * Generate CSV for the iterator
+     * The beans are pulled lazily while the rows are written
+     *
+     * @param writer:        The writer
+     * @param beans:         The iterator of data
+     * @param includeHeader: Whether to include the header or not
+     */
+    public void writeCSV(Writer writer, Iterator<T> beans, Boolean includeHeader) throws IOException {
+
+        if (writer == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+
+        writeCSV(cjWriteIterator(writer, beans), includeHeader);
+    }
+
+    /**
+     * Generate CSV for the iterable on the executor
+     * Cancelling the future stops the export before the next bean, the
+     * future is cancelled once it has stopped writing, the writer is not closed
+     *
+     * @param writer: The writer
+     * @param beans:  The iterable of data, `stream::iterator` for a stream
+     * @return future: The result of the export, the bytes are -1
+     */
+    public CompletableFuture<CJExportResult> writeCSVAsync(Writer writer, Iterable<T> beans) {
+        if (writer == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        return supplyAsync(future -> export(iterableWriteIterator(writer, future.stoppable(beans)), future, -1));
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to the stream on the executor,
+     * gzip compressed when set. The stream is flushed but not closed
+     * Cancelling the future stops the export before the next bean, the
+     * future is cancelled once it has stopped writing
+     *
+     * @param out:   The output stream
+     * @param beans: The iterable of data, `stream::iterator` for a stream
+     * @return future: The result of the export
+     */
+    public CompletableFuture<CJExportResult> writeCSVAsync(OutputStream out, Iterable<T> beans) {
+        if (out == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        return supplyAsync(future -> {
+            CJExportResult result = export(Channels.newChannel(out), beans, future);
+            out.flush();
+            return result;
+        });
+    }
+
+    /**
+     * Generate CSV as UTF-8 bytes to the file on the executor,
+     * gzip compressed when set. The file is created or truncated
+     * Cancelling the future stops the export before the next bean, the
+     * future is cancelled once it has closed the file
+     *
+     * @param path:  The file path
+     * @param beans: The iterable of data, `stream::iterator` for a stream
+     * @return future: The result of the export
+     */
+    public CompletableFuture<CJExportResult> writeCSVAsync(Path path, Iterable<T> beans) {
+        if (path == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        return supplyAsync(future -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                return export(channel, beans, future);
+            }
+        });
+    }
+
+    /**
+     * Get a subscriber writing the beans pushed by a publisher to the writer
+     *
+     * The beans are requested in batches, the next batch once the export has
+     * taken the previous one, and written on the executor as they arrive.
+     * The completion flushes and closes the writer, an error aborts the export.
+     * A model with dynamic maps holds all the beans before the header
+     * unless `singlePass` spills them
+     *
+     * @param writer:    The writer, closed once the export is done
+     * @param batchSize: The number of the beans requested at once
+     * @return subscriber: The subscriber, `CJFlowSubscriber` adapts it to `Flow`
+     */
+    public CJSubscriber<T> subscriber(Writer writer, int batchSize) {
+        if (writer == null) {
+            throw new CJException(CJExceptionMessages.WRITER_NOT_SET);
+        }
+        return new CJSubscriber<>(batchSize, beans -> supplyAsync(future -> {
+            // The writer is closed by the export thread, once it has stopped writing
+            try {
+                return export(iterableWriteIterator(writer, future.stoppable(beans)), future, -1);
+            } finally {
+                writer.close();
+            }
+        }));
+    }
+
+    /**
+     * Run the export on the executor, unless the future is cancelled first
+     *
+     * @param export: The export, given its future
+     * @return future: The result of the export, completed once the export has returned or thrown
+     */
+    private CJExportFuture supplyAsync(CJThrowingFunction<CJExportFuture, CJExportResult, IOException> export) {
+        CJExportFuture future = new CJExportFuture();
+        (executor == null ? CJExecutors.exports() : executor).execute(() -> future.run(export));
+        return future;
+    }
+
+    /**
+     * Write the CSV as UTF-8 bytes to the channel, the channel is not closed
+     *
+     * @param channel: The byte channel
+     * @param beans:   The iterable of data
+     * @param future:  The future of the export
+     * @return result: The result of the export, the bytes are counted at the channel
+     */
+    private CJExportResult export(WritableByteChannel channel, Iterable<T> beans,
+                                  CJExportFuture future) throws IOException {
+        CountingChannel countingChannel = new CountingChannel(channel);
+        CJByteWriter cjByteWriter = byteWriter(countingChannel);
+        CJExportResult result;
+        try {
+            result = export(iterableWriteIterator(cjByteWriter, future.stoppable(beans)), future, 0);
+        } finally {
+            cjByteWriter.close();
         }
+        return new CJExportResult(result.getRows(), result.getChars(), countingChannel.bytes.get());
+    }
 
-        cjWriteIterator.writeRemaining();
+    /**
+     * Write the CSV of the CJWriterIterator, stopping it once the future is cancelled
+     *
+     * @param cjWriteIterator: The iterator to write
+     * @param future:          The future of the export
+     * @param bytes:           The bytes of the result
+     * @return result: The result of the export
+     */
+    private CJExportResult export(CJWriteIterator<T> cjWriteIterator, CJExportFuture future,
+                                  long bytes) throws IOException {
+        future.onStop(cjWriteIterator::cancel);
+        writeCSV(cjWriteIterator, includeHeader);
+        return new CJExportResult(cjWriteIterator.getRowsWritten(), cjWriteIterator.getCharsWritten(), bytes);
     }
 
+    /**
+     * Write the CSV of the CJWriterIterator to its writer
+     *
+     * @param cjWriteIterator: The iterator to write
+     * @param includeHeader:   Whether to include the header or not
+     */
+    private void writeCSV(CJWriteIterator<T> cjWriteIterator, Boolean includeHeader) throws IOException {
+
+        try {
+            if (includeHeader) {
+                cjWriteIterator.writeHeader();
+            }
+
+            cjWriteIterator.writeRemaining();
+            cjWriteIterator.flush();
+        } finally {
+            cjWriteIterator.close();
+        }
+    }
+
+    /**
+     * A channel counting the bytes written to the target channel,
+     * after the compression when gzip is on
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        private final WritableByteChannel channel;
+        private final AtomicLong bytes = new AtomicLong();
+
+        CountingChannel(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int written = channel.write(src);
+            bytes.addAndGet(written);
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package org.csv4j;
 
+import java.math.BigDecimal;
+import java.time.temporal.TemporalAccessor;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * ToString is a util class to generate string
@@ -12,31 +14,89 @@ import java.util.stream.Collectors;
  */
 class ToString {
 
+    /**
+     * Append the string representation of the object, locale independent
+     * and without creating a String for the numbers and the dates
+     * Doubles are written as their shortest representation, decimals
+     * without an exponent, `java.time` values as their `toString` and
+     * the other objects as `String.valueOf`
+     *
+     * @param obj: The object to append
+     * @param out: The buffer to append to
+     */
+    static void valueOf(Object obj, CJCharBuffer out) {
+        if (obj instanceof String) {
+            out.append((String) obj);
+        } else if (obj instanceof Integer || obj instanceof Long
+                || obj instanceof Short || obj instanceof Byte) {
+            out.append(((Number) obj).longValue());
+        } else if (obj instanceof Double) {
+            CJDoubleEncoder.append((Double) obj, out);
+        } else if (obj instanceof Boolean) {
+            out.append(((Boolean) obj).booleanValue());
+        } else if (obj instanceof BigDecimal) {
+            decimalValue((BigDecimal) obj, out);
+        } else if (obj instanceof Character) {
+            out.append(((Character) obj).charValue());
+        } else if (!(obj instanceof TemporalAccessor) || !CJTimeEncoder.append(obj, out)) {
+            out.append(String.valueOf(obj));
+        }
+    }
+
+    /**
+     * Append the decimal without an exponent, like `toPlainString`
+     *
+     * @param decimal: The decimal
+     * @param out:     The buffer to append to
+     */
+    static void decimalValue(BigDecimal decimal, CJCharBuffer out) {
+        int scale = decimal.scale();
+        if (scale < 0 || scale > 18 || decimal.precision() > 18) {
+            out.append(decimal.toPlainString());
+            return;
+        }
+        long unscaled = scale == 0 ? decimal.longValue() : decimal.unscaledValue().longValue();
+        if (scale == 0) {
+            out.append(unscaled);
+            return;
+        }
+        if (unscaled < 0) {
+            out.append('-');
+            unscaled = -unscaled;
+        }
+        long pow = 1;
+        for (int i = 0; i < scale; i++) {
+            pow *= 10;
+        }
+        out.append(unscaled / pow).append('.');
+        long fraction = unscaled % pow;
+        for (long p = pow / 10; p > fraction && p > 1; p /= 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+
     /**
      * Convert ar to string
      *
      * @param ar:        Array to be converted
      * @param separator: The items' separator
-     * @return string: The string representation
+     * @param out:       The buffer to append the representation to
      */
-    static String arrayToString(Object[] ar, String separator, String nullValue) {
+    static void arrayToString(Object[] ar, String separator, String nullValue, CJCharBuffer out) {
         if (ar == null) {
-            return nullValue;
-        }
-
-        int iMax = ar.length - 1;
-        if (iMax == -1) {
-            return "[]";
+            out.append(nullValue);
+            return;
         }
 
-        StringBuilder b = new StringBuilder();
-        b.append('[');
-        for (int i = 0; ; i++) {
-            b.append(ar[i]);
-            if (i == iMax)
-                return b.append(']').toString();
-            b.append(separator);
+        out.append('[');
+        for (int i = 0; i < ar.length; i++) {
+            if (i > 0) {
+                out.append(separator);
+            }
+            valueOf(ar[i], out);
         }
+        out.append(']');
     }
 
     /**
@@ -44,20 +104,24 @@ class ToString {
      *
      * @param list:      List to be converted
      * @param separator: The items' separator
-     * @return string: The string representation
+     * @param out:       The buffer to append the representation to
      */
-    static String collectionToString(Collection<Object> list, String separator, String nullValue) {
+    static void collectionToString(Collection<Object> list, String separator, String nullValue,
+                                   CJCharBuffer out) {
         if (list == null) {
-            return nullValue;
+            out.append(nullValue);
+            return;
         }
 
-        if (list.size() == 0) {
-            return "[]";
+        out.append('[');
+        Iterator<Object> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            valueOf(iterator.next(), out);
+            if (iterator.hasNext()) {
+                out.append(separator);
+            }
         }
-
-        return list.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(separator, "[", "]"));
+        out.append(']');
     }
 
     /**
@@ -65,20 +129,26 @@ class ToString {
      *
      * @param map:       Map to be converted
      * @param separator: The items' separator
-     * @return string: The string representation
+     * @param out:       The buffer to append the representation to
      */
-    static String MapToString(Map<Object, Object> map, String separator, String nullValue) {
+    static void MapToString(Map<Object, Object> map, String separator, String nullValue, CJCharBuffer out) {
         if (map == null) {
-            return nullValue;
+            out.append(nullValue);
+            return;
         }
 
-        if (map.size() == 0) {
-            return "{}";
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<Object, Object> entry : map.entrySet()) {
+            if (!first) {
+                out.append(separator);
+            }
+            first = false;
+            valueOf(entry.getKey(), out);
+            out.append('=');
+            valueOf(entry.getValue(), out);
         }
-
-        return map.keySet().stream()
-                .map(key -> key + "=" + map.get(key))
-                .collect(Collectors.joining(separator, "{", "}"));
+        out.append('}');
     }
 
 }
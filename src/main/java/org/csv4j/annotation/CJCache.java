@@ -0,0 +1,28 @@
+package org.csv4j.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A field annotation to cache the rendered cells of the field values.
+ *
+ * It suits the low cardinality fields, like status strings or country
+ * codes, repeated across the rows: each distinct value is formatted and
+ * quoted once, then its cell is copied. The values are matched by equality
+ * so they must be immutable. The cells of a `CJMap` field are its values.
+ * Enum fields are cached without the annotation
+ *
+ * @author Omar Muhtaseb
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CJCache {
+
+    /**
+     * The max number of the cached values, the least recently used
+     * are evicted beyond it. 0 disables the cache, of enums as well
+     * */
+    int value() default 1024;
+}
@@ -0,0 +1,28 @@
+package org.csv4j.annotation;
+
+import org.csv4j.CJFormatter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A field annotation to set the formatter of the annotated field,
+ * superseding the formatters registered on the `CJWriter`.
+ *
+ * The formatter of a `CJMap` field formats the values of the map.
+ * The formatter class must have a public default constructor, it
+ * is instantiated once per model class
+ *
+ * @author Omar Muhtaseb
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CJFormat {
+
+    /**
+     * The formatter class
+     * */
+    Class<? extends CJFormatter> value();
+}
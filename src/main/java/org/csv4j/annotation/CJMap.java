@@ -38,4 +38,35 @@ public @interface CJMap {
      * When set to `false` the columns with no values will be ignored in CSVWRiter
      * */
     boolean includeNull() default true;
+
+    /**
+     * The number of the first beans scanned for the keys of a dynamic map.
+     *
+     * When 0 all the beans are scanned. The keys found only after the
+     * scanned beans are not columns, they go to the `overflow()` column
+     * */
+    int scanLimit() default 0;
+
+    /**
+     * The fraction of the scanned beans sampled for the keys of a dynamic map.
+     *
+     * When 1 all the scanned beans are sampled. The beans are sampled
+     * with a fixed seed, so the same beans give the same header
+     * */
+    double sampleRate() default 1;
+
+    /**
+     * The max number of the columns of the keys of a dynamic map.
+     *
+     * When 0 the columns are unlimited, otherwise the first found keys are kept
+     * */
+    int maxKeys() default 0;
+
+    /**
+     * The header name of the column holding the entries of the keys that are not
+     * columns, as key=value pairs separated by the `multiValuesSeparator`.
+     *
+     * When empty these entries are dropped
+     * */
+    String overflow() default "";
 }
@@ -10,4 +10,16 @@ public class CJExceptionMessages {
     public static final String NO_SUCH_ELT_EXISTS = "No Such element exists";
     public static final String DATA_NOT_SET = "Data is not set";
     public static final String WRITER_NOT_SET = "Writer is not set";
+    public static final String READER_NOT_SET = "Reader is not set";
+    public static final String NO_DEFAULT_CONSTRUCTOR = "The model has no default constructor";
+    public static final String HEADER_REQUIRED = "A header is required to read dynamic maps";
+    public static final String UNSUPPORTED_TYPE = "The field type can't be parsed from csv";
+    public static final String INVALID_PARTS_PATTERN = "The parts file pattern has no part index";
+    public static final String TABLE_ROW_INCOMPLETE = "The table row doesn't have a value for every column";
+    public static final String TABLE_COLUMN_TYPE = "The value type doesn't match the table column type";
+    public static final String SCHEMA_ROW_TYPE = "The row of a schema is neither an Object[] nor a Map";
+    public static final String FORMATTER_NOT_INSTANTIABLE = "The formatter has no public default constructor";
+    public static final String APPEND_GZIP = "A gzip compressed csv can't be appended to";
+    public static final String UNKNOWN_COLUMN = "The column name matches no column nor map key";
+    public static final String NO_COLUMNS = "The selected columns leave no column to write";
 }
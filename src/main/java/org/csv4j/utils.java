@@ -1,13 +1,20 @@
 package org.csv4j;
 
+import org.csv4j.annotation.CJCache;
+import org.csv4j.annotation.CJFormat;
 import org.csv4j.annotation.CJMap;
 import org.csv4j.exception.CJException;
+import org.csv4j.exception.CJExceptionMessages;
 
 import java.lang.reflect.Field;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -18,6 +25,23 @@ import java.util.stream.Collectors;
  */
 class utils {
 
+    /**
+     * The generated serializer of each model class, held by the class
+     * itself so it doesn't keep the class loader alive
+     */
+    private static final ClassValue<Optional<CJSerializer>> GENERATED_SERIALIZERS =
+            new ClassValue<Optional<CJSerializer>>() {
+                @Override
+                protected Optional<CJSerializer> computeValue(Class<?> type) {
+                    return Optional.ofNullable(loadSerializer(type));
+                }
+            };
+
+    /**
+     * The stale serializer registrations skipped before the loading stops
+     */
+    private static final int MAX_STALE_SERIALIZERS = 64;
+
     /**
      * Append class fields to fields list
      *
@@ -115,6 +139,102 @@ class utils {
                         field.getAnnotation(CJMap.class).includeNull());
     }
 
+    /**
+     * Instantiate the formatter set on the field with `CJFormat`
+     *
+     * @param field: The model field
+     * @return formatter: The formatter, null when the field has no `CJFormat`
+     */
+    @SuppressWarnings("unchecked")
+    static CJFormatter<Object> fieldFormatter(Field field) {
+        CJFormat cjFormat = field.getAnnotation(CJFormat.class);
+        if (cjFormat == null) {
+            return null;
+        }
+        try {
+            return cjFormat.value().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new CJException(CJExceptionMessages.FORMATTER_NOT_INSTANTIABLE);
+        }
+    }
+
+    /**
+     * Get the max number of the cached cells of the field, set with `CJCache`
+     * Enum fields are cached by default, a cell per constant
+     *
+     * @param field: The model field
+     * @return size: The max number of the cached cells, 0 when not cached
+     */
+    static int cacheSize(Field field) {
+        CJCache cjCache = field.getAnnotation(CJCache.class);
+        if (cjCache != null) {
+            return Math.max(cjCache.value(), 0);
+        }
+        if (field.getType().isEnum()) {
+            return field.getType().getEnumConstants().length;
+        }
+        return 0;
+    }
+
+    /**
+     * Get the bounds of the discovery of the keys of the field, set with `CJMap`
+     *
+     * @param field: The model field
+     * @return bounds: The bounds, NONE when the field is not a CJMap or is unbounded
+     */
+    static CJKeyBounds keyBounds(Field field) {
+        return isCJMap(field) ? CJKeyBounds.of(field.getAnnotation(CJMap.class)) : CJKeyBounds.NONE;
+    }
+
+    /**
+     * Get the serializer generated by the csv4j-processor for the class.
+     * The serializers registered for the `ServiceLoader` are looked up once per class
+     *
+     * @param clazz: The model class
+     * @return serializer: The generated serializer, null when not generated
+     */
+    static CJSerializer generatedSerializer(Class<?> clazz) {
+        return GENERATED_SERIALIZERS.get(clazz).orElse(null);
+    }
+
+    /**
+     * Load the serializer registered for the model class with its class loader.
+     * A stale registration, of a serializer no longer compiled, is skipped up to
+     * `MAX_STALE_SERIALIZERS` of them. A broken services file stops the loading,
+     * the model is then written through reflection
+     *
+     * @param clazz: The model class
+     * @return serializer: The generated serializer, null when not found
+     */
+    private static CJSerializer loadSerializer(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        Iterator<CJSerializer> iterator = ServiceLoader.load(CJSerializer.class, classLoader).iterator();
+        int stale = 0;
+        while (true) {
+            try {
+                if (!iterator.hasNext()) {
+                    return null;
+                }
+            } catch (ServiceConfigurationError e) {
+                // The iterator doesn't move past an unreadable services file
+                return null;
+            }
+            try {
+                CJSerializer serializer = iterator.next();
+                if (serializer.modelClass() == clazz) {
+                    return serializer;
+                }
+            } catch (ServiceConfigurationError e) {
+                if (++stale == MAX_STALE_SERIALIZERS) {
+                    return null;
+                }
+            }
+        }
+    }
+
     /*
      * Throwing consumer wrapper for lambda
      */
@@ -0,0 +1,26 @@
+package org.csv4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The default executor of the asynchronous exports, Java 21
+ *
+ * A virtual thread per export
+ *
+ * @author Omar Muhtaseb
+ */
+final class CJExecutors {
+
+    private static final Executor EXPORTS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private CJExecutors() {
+    }
+
+    /**
+     * Get the default executor of the asynchronous exports
+     */
+    static Executor exports() {
+        return EXPORTS;
+    }
+}
@@ -0,0 +1,98 @@
+package org.csv4j;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * CJAsyncWriterTest checks that the I/O thread never outlives the writer
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJAsyncWriterTest {
+
+    @Test
+    public void closeOfInterruptedProducerStopsTheIOThreadBeforeClosingTheWriter() throws Exception {
+        SlowWriter target = new SlowWriter();
+        CJAsyncWriter asyncWriter = new CJAsyncWriter(target, true, 16, 1);
+        Thread ioThread = ioThread();
+
+        asyncWriter.write(new char[64]);
+        target.writing.await();
+        Thread.currentThread().interrupt();
+        try {
+            asyncWriter.close();
+            fail("The interrupted close must throw");
+        } catch (InterruptedIOException expected) {
+            // The flush is interrupted
+        } finally {
+            assertTrue("The interrupt is kept", Thread.interrupted());
+        }
+
+        assertFalse("The I/O thread is stopped", ioThread.isAlive());
+        assertTrue(target.closed.get());
+        assertFalse("The writer is closed while it is written", target.closedWhileWriting.get());
+    }
+
+    @Test
+    public void closeStopsTheIOThread() throws Exception {
+        SlowWriter target = new SlowWriter();
+        CJAsyncWriter asyncWriter = new CJAsyncWriter(target, true, 16, 1);
+        Thread ioThread = ioThread();
+
+        asyncWriter.write(new char[64]);
+        asyncWriter.close();
+
+        assertFalse(ioThread.isAlive());
+        assertTrue(target.closed.get());
+        assertFalse(target.closedWhileWriting.get());
+    }
+
+    private static Thread ioThread() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("csv4j-io") && thread.isAlive()) {
+                return thread;
+            }
+        }
+        throw new AssertionError("No I/O thread");
+    }
+
+    private static final class SlowWriter extends Writer {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final AtomicBoolean inWrite = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean closedWhileWriting = new AtomicBoolean();
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            inWrite.set(true);
+            writing.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            } finally {
+                inWrite.set(false);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closedWhileWriting.compareAndSet(false, inWrite.get());
+            closed.set(true);
+        }
+    }
+}
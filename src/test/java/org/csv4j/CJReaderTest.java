@@ -0,0 +1,66 @@
+package org.csv4j;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CJReaderTest checks that the written csv reads back to the same beans
+ *
+ * @author Omar Muhtaseb
+ */
+public class CJReaderTest {
+
+    @Test
+    public void emptyCellOfSingleColumnRowIsReadBack() throws IOException {
+        List<Single> beans = Arrays.asList(new Single("a"), new Single(""), new Single("b"));
+
+        List<Single> read = read(Single.class, new CJWriter<Single>(Single.class).csv(beans));
+
+        assertEquals(3, read.size());
+        assertEquals("a", read.get(0).value);
+        assertEquals("", read.get(1).value);
+        assertEquals("b", read.get(2).value);
+    }
+
+    @Test
+    public void emptyLinesOfMultiColumnsCsvAreSkipped() throws IOException {
+        List<Pair> read = read(Pair.class, "first,second\n\na,b\n\nc,d\n");
+
+        assertEquals(2, read.size());
+        assertEquals("a", read.get(0).first);
+        assertEquals("d", read.get(1).second);
+    }
+
+    private static <T> List<T> read(Class<T> clazz, String csv) throws IOException {
+        List<T> beans = new ArrayList<>();
+        try (CJReader<T> reader = new CJReader<T>(clazz, new StringReader(csv))) {
+            while (reader.hasNext()) {
+                beans.add(reader.next());
+            }
+        }
+        return beans;
+    }
+
+    public static class Single {
+        private String value;
+
+        public Single() {
+        }
+
+        Single(String value) {
+            this.value = value;
+        }
+    }
+
+    public static class Pair {
+        private String first;
+        private String second;
+    }
+}